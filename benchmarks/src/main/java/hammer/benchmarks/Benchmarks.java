@@ -0,0 +1,64 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.benchmarks;
+
+import java.io.File;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks once single threaded and once with one thread per available
+ * processor, with the GC profiler enabled to report allocations per operation.  The
+ * results of each run are written as JSON to {@code results-<threads>.json} in the
+ * working directory so that they can be compared between versions.  Any standard
+ * JMH command line options (such as a benchmark include pattern) are honored.
+ */
+public class Benchmarks {
+    
+    /**
+     * Do not allow instantiation.
+     */
+    private Benchmarks() {}
+    
+    public static void main(String[] args) throws RunnerException,
+                                                  CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        int processors = Runtime.getRuntime().availableProcessors();
+        for (int threads : new int[] { 1, processors }) {
+            ChainedOptionsBuilder builder = new OptionsBuilder()
+                    .parent(commandLine)
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(new File("results-" + threads + ".json").getPath());
+            if (commandLine.getIncludes().isEmpty()) {
+                builder.include(Benchmarks.class.getPackage().getName() + ".*");
+            }
+            new Runner(builder.build()).run();
+            
+            if (processors == 1) {
+                break;
+            }
+        }
+    }
+}
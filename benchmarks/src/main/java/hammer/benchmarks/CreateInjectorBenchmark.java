@@ -0,0 +1,81 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hammer.api.Container;
+import hammer.api.Hammer;
+import hammer.api.Injector;
+import hammer.api.Loader;
+import hammer.api.Qualifiers;
+
+/**
+ * Benchmarks for booting an {@link Injector} with a varying number of bindings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CreateInjectorBenchmark {
+    
+    @Param({"10", "100", "1000"})
+    public int bindings;
+    
+    private Loader loader;
+    
+    @Setup
+    public void setup() {
+        final Object[] instances = new Object[bindings];
+        for (int i = 0; i < bindings; i++) {
+            instances[i] = new Fixtures.Unscoped();
+        }
+        loader = new Loader() {
+            @Override
+            public void load(Container container) {
+                for (int i = 0; i < instances.length; i++) {
+                    container.addImplType(Fixtures.Unscoped.class)
+                             .asStrictBinding()
+                             .forItself()
+                             .whenQualifiedWith(Qualifiers.named("type" + i));
+                    container.addInstance(instances[i])
+                             .asStrictBinding()
+                             .forItself()
+                             .whenQualifiedWith(Qualifiers.named("instance" + i));
+                }
+            }
+        };
+    }
+    
+    @Benchmark
+    public Injector createInjector() {
+        return Hammer.createInjector(Fixtures.LOADER, loader);
+    }
+}
@@ -0,0 +1,145 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.benchmarks;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Scope;
+import javax.inject.Singleton;
+
+import hammer.api.Container;
+import hammer.api.Loader;
+import hammer.api.Multiton;
+import hammer.api.Qualifiers;
+
+/**
+ * The types and {@link Loader} shared by the benchmarks.
+ */
+public class Fixtures {
+    
+    /**
+     * Do not allow instantiation.
+     */
+    private Fixtures() {}
+    
+    /**
+     * A {@link Loader} that binds every fixture type.
+     */
+    public static final Loader LOADER = new Loader() {
+        @Override
+        public void load(Container container) {
+            container.addImplType(Unscoped.class).asStrictBinding().forItself();
+            container.addImplType(SingletonType.class).asStrictBinding().forItself();
+            container.addImplType(MultitonType.class).asStrictBinding().forItself()
+                     .whenQualifiedWith(Qualifiers.named("one"));
+            container.addImplType(MultitonType.class).asStrictBinding().forItself()
+                     .whenQualifiedWith(Qualifiers.named("two"));
+            container.addImplType(MultitonHolder.class).asStrictBinding().forItself();
+            container.addImplType(RequestScoped.class).asStrictBinding().forItself();
+            
+            container.addImplType(Deep0.class).asStrictBinding().forItself();
+            container.addImplType(Deep1.class).asStrictBinding().forItself();
+            container.addImplType(Deep2.class).asStrictBinding().forItself();
+            container.addImplType(Deep3.class).asStrictBinding().forItself();
+            container.addImplType(Deep4.class).asStrictBinding().forItself();
+            container.addImplType(Deep5.class).asStrictBinding().forItself();
+            container.addImplType(Deep6.class).asStrictBinding().forItself();
+            container.addImplType(Deep7.class).asStrictBinding().forItself();
+            container.addImplType(Wide.class).asStrictBinding().forItself();
+            container.addImplType(ProviderHolder.class).asStrictBinding().forItself();
+            
+            for (int i = 0; i < 4; i++) {
+                container.addImplType(Unscoped.class)
+                         .asMapMemberBinding()
+                         .forMapType(String.class, Unscoped.class)
+                         .withKey("key" + i);
+                container.addImplType(Unscoped.class)
+                         .asListMemberBinding()
+                         .forElementType(Unscoped.class);
+                container.addInstance(new Unscoped())
+                         .asSetMemberBinding()
+                         .forElementType(Unscoped.class);
+            }
+            container.addImplType(CollectionHolder.class).asStrictBinding().forItself();
+        }
+    };
+    
+    @Target(value = {ElementType.ANNOTATION_TYPE, ElementType.TYPE})
+    @Retention(value = RetentionPolicy.RUNTIME)
+    @Documented
+    @Scope
+    public static @interface RequestScope {}
+    
+    public static class Unscoped {}
+    
+    @Singleton
+    public static class SingletonType {}
+    
+    @Multiton
+    public static class MultitonType {}
+    
+    @RequestScope
+    public static class RequestScoped {}
+    
+    public static class MultitonHolder {
+        @Inject @Named("one") MultitonType one;
+        @Inject @Named("two") MultitonType two;
+    }
+    
+    public static class Deep0 { @Inject Deep0(Unscoped u) {} }
+    public static class Deep1 { @Inject Deep1(Deep0 d) {} }
+    public static class Deep2 { @Inject Deep2(Deep1 d) {} }
+    public static class Deep3 { @Inject Deep3(Deep2 d) {} }
+    public static class Deep4 { @Inject Deep4(Deep3 d) {} }
+    public static class Deep5 { @Inject Deep5(Deep4 d) {} }
+    public static class Deep6 { @Inject Deep6(Deep5 d) {} }
+    public static class Deep7 { @Inject Deep7(Deep6 d) {} }
+    
+    public static class Wide {
+        @Inject
+        Wide(Unscoped u0, Unscoped u1, Unscoped u2, Unscoped u3,
+             SingletonType s0, SingletonType s1, SingletonType s2, SingletonType s3) {}
+    }
+    
+    public static class ProviderHolder {
+        @Inject Provider<Unscoped> provider;
+    }
+    
+    public static class MemberTarget {
+        @Inject Unscoped field;
+        @Inject SingletonType singleton;
+        Unscoped method;
+        @Inject void inject(Unscoped method) {
+            this.method = method;
+        }
+    }
+    
+    public static class CollectionHolder {
+        @Inject Map<String, Unscoped> map;
+        @Inject List<Unscoped> list;
+        @Inject Set<Unscoped> set;
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Provider;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hammer.api.Hammer;
+import hammer.api.Injector;
+import hammer.api.TypeToken;
+
+/**
+ * Benchmarks for resolving instances from a fully booted {@link Injector}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GetInstanceBenchmark {
+    
+    private static final TypeToken<Map<String, Fixtures.Unscoped>> MAP_TYPE = 
+            new TypeToken<Map<String, Fixtures.Unscoped>>() {};
+    private static final TypeToken<List<Fixtures.Unscoped>> LIST_TYPE = 
+            new TypeToken<List<Fixtures.Unscoped>>() {};
+    private static final TypeToken<Set<Fixtures.Unscoped>> SET_TYPE = 
+            new TypeToken<Set<Fixtures.Unscoped>>() {};
+    
+    private Injector injector;
+    private Provider<Fixtures.Unscoped> provider;
+    
+    @Setup
+    public void setup() {
+        injector = Hammer.createInjector(Fixtures.LOADER);
+        provider = injector.getProvider(Fixtures.Unscoped.class);
+    }
+    
+    @Benchmark
+    public Object unscoped() {
+        return injector.getInstance(Fixtures.Unscoped.class);
+    }
+    
+    @Benchmark
+    public Object singleton() {
+        return injector.getInstance(Fixtures.SingletonType.class);
+    }
+    
+    @Benchmark
+    public Object multiton() {
+        return injector.getInstance(Fixtures.MultitonHolder.class);
+    }
+    
+    @Benchmark
+    public Object deepTree() {
+        return injector.getInstance(Fixtures.Deep7.class);
+    }
+    
+    @Benchmark
+    public Object wideTree() {
+        return injector.getInstance(Fixtures.Wide.class);
+    }
+    
+    @Benchmark
+    public Object providerGet() {
+        return provider.get();
+    }
+    
+    @Benchmark
+    public Object providerInjection() {
+        return injector.getInstance(Fixtures.ProviderHolder.class);
+    }
+    
+    @Benchmark
+    public Object injectMembers() {
+        Fixtures.MemberTarget target = new Fixtures.MemberTarget();
+        injector.injectMembers(target);
+        return target;
+    }
+    
+    @Benchmark
+    public Object mapBinding() {
+        return injector.getInstance(MAP_TYPE);
+    }
+    
+    @Benchmark
+    public Object listBinding() {
+        return injector.getInstance(LIST_TYPE);
+    }
+    
+    @Benchmark
+    public Object setBinding() {
+        return injector.getInstance(SET_TYPE);
+    }
+    
+    @Benchmark
+    public Object collectionInjection() {
+        return injector.getInstance(Fixtures.CollectionHolder.class);
+    }
+    
+    @Benchmark
+    public Object enterScope() {
+        return injector.enterScope(Fixtures.RequestScope.class)
+                       .getInstance(Fixtures.RequestScoped.class);
+    }
+}
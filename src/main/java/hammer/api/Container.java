@@ -16,6 +16,8 @@
 package hammer.api;
 
 import java.lang.annotation.Annotation;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A {@link Container} represents a partially constructed configuration that will
@@ -73,7 +75,8 @@ public interface Container {
      * Configure the given scopes to be activate in the booted {@link Injector}.  Note
      * that this method is additive - the resulting {@link Injector}'s active scopes will
      * be the union of all scopes provided in all calls to this method in addition to
-     * both the {@code Singleton} and {@link Multiton} scopes.
+     * the {@code Singleton}, {@link Multiton}, {@link ThreadScoped},
+     * {@link Refreshable} and {@link SoftScoped} scopes.
      * 
      * @param scopes the scopes to activate
      */
@@ -87,6 +90,140 @@ public interface Container {
      */
     void configureStaticInjections(Class<?> type);
     
+    /**
+     * Request that every type bound to a {@code Singleton} style scope that is active
+     * when the {@link Injector} is created be instantiated upon construction of the
+     * {@link Injector} rather than lazily on its first injection.  Singletons that do not
+     * depend on each other are instantiated in parallel using the given
+     * {@code Executor}, and the {@link Injector} is not returned until all of them have
+     * been instantiated.  If this method is called multiple times, the most recent call
+     * takes precedence.
+     * <p>
+     * This call is equivalent to the call 
+     * {@link #configureEagerSingletons(java.util.concurrent.Executor,
+     * hammer.api.InstantiationListener) configureEagerSingletons(executor, null)}
+     * 
+     * @param executor the executor used to instantiate the singletons
+     */
+    void configureEagerSingletons(Executor executor);
+    
+    /**
+     * Request that every type bound to a {@code Singleton} style scope that is active
+     * when the {@link Injector} is created be instantiated upon construction of the
+     * {@link Injector} rather than lazily on its first injection.  Singletons that do not
+     * depend on each other are instantiated in parallel using the given
+     * {@code Executor}, and the {@link Injector} is not returned until all of them have
+     * been instantiated.  If this method is called multiple times, the most recent call
+     * takes precedence.
+     * 
+     * @param executor the executor used to instantiate the singletons
+     * @param listener the listener to notify of the time taken to instantiate each
+     *                 singleton or {@code null} if no notifications are required
+     */
+    void configureEagerSingletons(Executor executor, InstantiationListener listener);
+    
+    /**
+     * Request that every type bound to a {@code Singleton} style scope that is active
+     * when the {@link Injector} is created be instantiated in the background using the
+     * given {@code Executor}, starting upon construction of the {@link Injector}.  Unlike
+     * {@link #configureEagerSingletons(java.util.concurrent.Executor)}, the
+     * {@link Injector} is returned without waiting for the singletons to be
+     * instantiated.  Injection requests for {@code CompletableFuture<T>} return the
+     * future tracking the background instantiation of {@code T}, allowing consumers
+     * to compose on it without blocking.  Injection requests for {@code T} itself wait
+     * for any background instantiation in progress.  If this method or
+     * {@link #configureEagerSingletons(java.util.concurrent.Executor)} is called
+     * multiple times, the most recent call takes precedence.
+     * <p>
+     * This call is equivalent to the call 
+     * {@link #configureAsyncSingletons(java.util.concurrent.Executor,
+     * hammer.api.InstantiationListener) configureAsyncSingletons(executor, null)}
+     * 
+     * @param executor the executor used to instantiate the singletons
+     */
+    void configureAsyncSingletons(Executor executor);
+    
+    /**
+     * Request that every type bound to a {@code Singleton} style scope that is active
+     * when the {@link Injector} is created be instantiated in the background using the
+     * given {@code Executor}, starting upon construction of the {@link Injector}.
+     * 
+     * @param executor the executor used to instantiate the singletons
+     * @param listener the listener to notify of the time taken to instantiate each
+     *                 singleton or {@code null} if no notifications are required
+     * @see #configureAsyncSingletons(java.util.concurrent.Executor)
+     */
+    void configureAsyncSingletons(Executor executor, InstantiationListener listener);
+    
+    /**
+     * Request that the booted {@link Injector} report each instance that it provides
+     * to the given {@link ProvisionListener}, for example to collect
+     * {@link ProvisionMetrics}.  If this method is called multiple times, the most
+     * recent call takes precedence.  By default, no listener is configured and the
+     * {@link Injector} performs no instrumentation.
+     * 
+     * @param listener the listener to notify of provided instances
+     */
+    void configureProvisionListener(ProvisionListener listener);
+    
+    /**
+     * Request that the booted {@link Injector} trace each outermost provision, such as
+     * a call to {@link Injector#getInstance(java.lang.Class)}, along with all of its
+     * nested provisions, and pass the resulting {@link ProvisionTrace} to the given
+     * {@link ProvisionTracer}.  Tracing is intended for diagnosing slow provisions and
+     * adds overhead to every provision.  If this method is called multiple times, the
+     * most recent call takes precedence.  By default, no tracer is configured and the
+     * {@link Injector} performs no tracing.
+     * 
+     * @param tracer the tracer to pass the traces to
+     */
+    void configureProvisionTracer(ProvisionTracer tracer);
+    
+    /**
+     * Configure the maximum number of idle instances that the booted {@link Injector}
+     * pools for each {@link Pooled} type.  Instances whose lease ends while the pool
+     * is full are discarded.  If this method is called multiple times, the most recent
+     * call takes precedence.  By default, up to {@code 16} instances are pooled for
+     * each type.
+     * 
+     * @param capacity the maximum number of pooled instances per type
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    void configurePoolCapacity(int capacity);
+    
+    /**
+     * Configure the age after which the booted {@link Injector} rebuilds the instance of
+     * each {@link Refreshable} type.  An instance is rebuilt in the background by the
+     * first injection request made after it expires, using the executor configured for
+     * eager or asynchronous singletons or the common fork join pool if there is none.
+     * If this method is called multiple times, the most recent call takes precedence.
+     * By default, instances of {@link Refreshable} types are only rebuilt on request.
+     * 
+     * @param interval the age after which instances are rebuilt
+     * @param unit the unit of the interval
+     * @throws IllegalArgumentException if the interval is not positive
+     * @see Injector#refresh(hammer.api.Key)
+     */
+    void configureRefreshInterval(long interval, TimeUnit unit);
+    
+    /**
+     * Configure the maximum number of qualified instances that the booted
+     * {@link Injector} holds for the given {@link Multiton} implementation type in each
+     * scope.  When a new instance would exceed the bound, the least recently used
+     * instance of the type is evicted and the given listener, if any, is notified.
+     * The bound only applies to the given type, the instances of other
+     * {@link Multiton} types are never evicted.  If this method is called multiple
+     * times for the same type, the most recent call takes precedence.
+     * 
+     * @param type the {@link Multiton} implementation type to bound
+     * @param capacity the maximum number of instances of the type per scope
+     * @param listener the listener to notify of evicted instances or {@code null} if no
+     *                 notifications are required
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    void configureMultitonCapacity(Class<?> type, int capacity,
+                                   EvictionListener listener);
+    
     /**
      * A {@link BindingInvocation} is a configuration entity used to configure the
      * binding of an implementation type or instance that has been added to a
@@ -275,15 +412,31 @@ public interface Container {
      * A {@link ListMemberBinder} is a configuration entity used to used to configure the
      * binding of an implementation type or instance that has been added to a
      * {@link Container} and bind it as a value in an injectable {@code List}.  The
-     * injected list will include elements in the order that they are added to this
-     * binder.  Note that this means if multiple {@link Loader}s are used to contribute to
-     * the list, the order in which the loaders are provided to the framework is
+     * injected list will include elements in ascending order of their configured
+     * priority (see {@link #withPriority(int)}).  Elements with the same priority are
+     * included in the order that they are added to this binder.  Note that this means if
+     * multiple {@link Loader}s are used to contribute to the list without explicit
+     * priorities, the order in which the loaders are provided to the framework is
      * important.
+     * <p>
+     * The order of the elements is computed exactly once when the {@link Injector} is
+     * created, so no sorting is performed when the list is injected.
      * 
      * @param <T> the type to configure
      */
     public interface ListMemberBinder<T> {
         
+        /**
+         * Configures the priority of this element in the injectable list.  Elements
+         * with a lower priority value are placed before elements with a higher priority
+         * value.  If this method is not called, the priority of the element is
+         * {@code 0}.
+         * 
+         * @param priority the priority of the element
+         * @return this {@link ListMemberBinder} used to further configure the binding
+         */
+        ListMemberBinder<T> withPriority(int priority);
+        
         /**
          * Configures the injectable list type to use for the binding.
          * 
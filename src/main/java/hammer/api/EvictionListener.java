@@ -0,0 +1,41 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.api;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * An {@link EvictionListener} is notified each time an {@link Injector} evicts the
+ * instance of a {@link Multiton} type for a qualifier to keep the number of instances
+ * within the configured bound.
+ * 
+ * @see Container#configureMultitonCapacity(Class, int, hammer.api.EvictionListener)
+ */
+public interface EvictionListener {
+    
+    /**
+     * Called after the instance for the given qualifier has been evicted.  The next
+     * injection request with the qualifier will create a new instance.  Note that this
+     * method is called on the injecting thread that caused the eviction and may be
+     * called concurrently from multiple threads.
+     * 
+     * @param type the type of the evicted instance
+     * @param qualifier the qualifier of the evicted instance or {@code null} if none
+     * @param instance the evicted instance
+     */
+    void evicted(TypeToken<?> type, Annotation qualifier, Object instance);
+
+}
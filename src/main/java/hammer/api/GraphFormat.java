@@ -0,0 +1,35 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.api;
+
+/**
+ * An enumeration of the formats in which an {@code Injector} can export its binding
+ * graph.
+ * @see Injector#exportGraph(java.lang.Appendable, hammer.api.GraphFormat)
+ */
+public enum GraphFormat {
+
+    /**
+     * The Graphviz DOT language.
+     */
+    DOT,
+    
+    /**
+     * A JSON document with a {@code nodes} array and an {@code edges} array.
+     */
+    JSON;
+    
+}
@@ -15,6 +15,10 @@
  */
 package hammer.api;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
+
 import hammer.internal.Injectors;
 
 /**
@@ -53,6 +57,129 @@ public class Hammer {
         return Injectors.createInjector(Token.INSTANCE, loaders);
     }
 
+    /**
+     * Create an {@link Injector} using the given set of {@link Loader}s to load the
+     * container, calling the loaders concurrently using the given {@code Executor}.
+     * Each {@link Loader} is called exactly once with its own instance of
+     * {@link Container}.  Once all of the loaders are complete, the containers are
+     * merged in the order in which the loaders are given, so the booted
+     * {@link Injector} is identical to one created by
+     * {@link #createInjector(hammer.api.Loader...)} with the same loaders.  This is
+     * useful when loaders perform expensive work to decide what to bind.
+     * 
+     * @param executor the executor used to call the loaders
+     * @param loaders the set of loaders to use
+     * @return a fully booted {@link Injector}
+     */
+    public static Injector createInjectorConcurrently(Executor executor,
+                                                      Loader... loaders) {
+        return Injectors.createInjectorConcurrently(Token.INSTANCE, executor, loaders);
+    }
+    
+    /**
+     * Create an {@link Injector} using the given set of {@link Loader}s to load the
+     * container, calling the loaders concurrently using the given {@code Executor}.
+     * Each {@link Loader} is called exactly once with its own instance of
+     * {@link Container}.  Once all of the loaders are complete, the containers are
+     * merged in the order in which the loaders are given, so the booted
+     * {@link Injector} is identical to one created by
+     * {@link #createInjector(java.lang.Iterable)} with the same loaders.  This is
+     * useful when loaders perform expensive work to decide what to bind.
+     * 
+     * @param executor the executor used to call the loaders
+     * @param loaders the set of loaders to use
+     * @return a fully booted {@link Injector}
+     */
+    public static Injector createInjectorConcurrently(
+            Executor executor, Iterable<? extends Loader> loaders) {
+        return Injectors.createInjectorConcurrently(Token.INSTANCE, executor, loaders);
+    }
+
+    /**
+     * Write a snapshot of the container loaded by the given set of {@link Loader}s to
+     * the given file.  The snapshot records the bindings, qualifiers, scopes, injection
+     * types and static injections of the container, along with the injectable
+     * constructor, fields and methods of each bound implementation, so that an
+     * {@link Injector} can later be restored by
+     * {@link #restoreInjector(java.nio.file.Path, hammer.api.Loader...)} without
+     * calling the loaders or introspecting the implementations.  This is typically
+     * done at build time.
+     * <p>
+     * Only the configuration of the container is recorded, including the pool and
+     * multiton capacities and the refresh interval.  Instance bindings cannot be
+     * recorded, and executors, listeners and tracers are ignored, so these must be
+     * configured by the loaders given when the snapshot is restored.  In particular,
+     * a restored multiton capacity has no {@link EvictionListener} unless the loaders
+     * configure the capacity of its type again along with a listener.  The snapshot
+     * refers to classes and members by name and must be restored with the same
+     * classes with which it was written.
+     * 
+     * @param file the file to write
+     * @param loaders the set of loaders to use
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if the container contains instance bindings,
+     *         or qualifiers or map keys that cannot be recorded
+     */
+    public static void writeSnapshot(Path file, Loader... loaders) throws IOException {
+        Injectors.writeSnapshot(Token.INSTANCE, file, loaders);
+    }
+    
+    /**
+     * Write a snapshot of the container loaded by the given set of {@link Loader}s to
+     * the given file, per
+     * {@link #writeSnapshot(java.nio.file.Path, hammer.api.Loader...)}.
+     * 
+     * @param file the file to write
+     * @param loaders the set of loaders to use
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if the container contains instance bindings,
+     *         or qualifiers or map keys that cannot be recorded
+     */
+    public static void writeSnapshot(Path file, Iterable<? extends Loader> loaders)
+            throws IOException {
+        Injectors.writeSnapshot(Token.INSTANCE, file, loaders);
+    }
+    
+    /**
+     * Create an {@link Injector} from a snapshot written by
+     * {@link #writeSnapshot(java.nio.file.Path, hammer.api.Loader...)}.  The recorded
+     * configuration is replayed on a new {@link Container}, after which each of the
+     * given {@link Loader}s is called with the same {@link Container} to add anything
+     * that could not be recorded, such as instance bindings and executors.  The
+     * recorded implementations are not introspected again unless the loaders change
+     * the allowed injection types.
+     * 
+     * @param file the snapshot to read
+     * @param loaders the set of loaders to call after the snapshot is replayed
+     * @return a fully booted {@link Injector}
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a valid snapshot
+     * @throws IllegalStateException if the snapshot refers to classes or members that
+     *         no longer exist
+     */
+    public static Injector restoreInjector(Path file, Loader... loaders)
+            throws IOException {
+        return Injectors.restoreInjector(Token.INSTANCE, file, loaders);
+    }
+    
+    /**
+     * Create an {@link Injector} from a snapshot written by
+     * {@link #writeSnapshot(java.nio.file.Path, java.lang.Iterable)}, per
+     * {@link #restoreInjector(java.nio.file.Path, hammer.api.Loader...)}.
+     * 
+     * @param file the snapshot to read
+     * @param loaders the set of loaders to call after the snapshot is replayed
+     * @return a fully booted {@link Injector}
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a valid snapshot
+     * @throws IllegalStateException if the snapshot refers to classes or members that
+     *         no longer exist
+     */
+    public static Injector restoreInjector(Path file, Iterable<? extends Loader> loaders)
+            throws IOException {
+        return Injectors.restoreInjector(Token.INSTANCE, file, loaders);
+    }
+
     /**
      * A utility class used to protect access to creating internal {@link Injector}s.
      */
@@ -0,0 +1,37 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.api;
+
+/**
+ * A {@link Handle} is a {@link Key} that has been resolved by an {@link Injector} to
+ * the binding that satisfies it.  Requests made through a {@link Handle} neither hash
+ * nor compare the key, so a {@link Handle} should be kept and reused for keys that
+ * are requested often.  A {@link Handle} may be used with the {@link Injector} that
+ * resolved it and with any {@link Injector} created from it using
+ * {@link Injector#enterScope(java.lang.Class)}.
+ *
+ * @param <T> the type of the objects provided through the handle
+ * @see Injector#resolve(hammer.api.Key)
+ * @see Injector#get(hammer.api.Handle)
+ */
+public interface Handle<T> {
+
+    /**
+     * @return the key that was resolved
+     */
+    Key<T> getKey();
+
+}
@@ -0,0 +1,350 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.api;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.annotation.Annotation;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Objects;
+
+import javax.inject.Named;
+
+/**
+ * A {@link Loader} that adds strict bindings for implementation types listed in an
+ * index resource.  The index is intended to be generated at build time so that
+ * implementation types can be discovered without scanning the classpath at runtime.
+ * The {@link IndexProcessor} generates the {@link #DEFAULT_INDEX} resource for the
+ * implementation types annotated with {@link Indexed} when they are compiled.
+ * Every resource with the configured name that is visible to the configured
+ * {@code ClassLoader} is read, so each JAR file may contribute its own index.
+ * <p>
+ * Each line of an index resource configures the strict binding of a single
+ * implementation type and has the following whitespace separated format:
+ * <pre>
+ *   implementation-class [@qualifier] [bound-type ...]
+ * </pre>
+ * <ul>
+ * <li>{@code implementation-class} is the binary name of the implementation
+ *     type.</li>
+ * <li>{@code @qualifier} is optional and is either {@code @javax.inject.Named(value)}
+ *     or the binary name of a {@code Qualifier} annotation that declares no elements
+ *     prefixed with {@code @}.  The value of a {@code Named} qualifier may be quoted
+ *     as in {@code @javax.inject.Named("a value")}, in which case {@code \"},
+ *     {@code \\}, {@code \n}, {@code \r} and {@code \t} are escape sequences.
+ *     Values containing whitespace, quotes, backslashes or parentheses must be
+ *     quoted.</li>
+ * <li>{@code bound-type} is the binary name of a type to bind the implementation type
+ *     to.  If no bound types are listed, the implementation type is bound to its own
+ *     type.</li>
+ * </ul>
+ * Blank lines and lines starting with {@code #} are ignored.  For example:
+ * <pre>
+ *   # bound for itself
+ *   com.example.GameService
+ *   # bound to two interfaces with a qualifier
+ *   com.example.FairHandicapper @javax.inject.Named(fair) com.example.Handicapper com.example.Service
+ *   # bound for itself with a quoted qualifier value
+ *   com.example.LenientHandicapper @javax.inject.Named("fair (lenient)")
+ * </pre>
+ */
+public class IndexLoader implements Loader {
+
+    /**
+     * The default name of the index resource.
+     */
+    public static final String DEFAULT_INDEX = "META-INF/hammer/index";
+
+    private final ClassLoader classLoader;
+    private final String resource;
+
+    /**
+     * Creates an {@link IndexLoader} that reads the {@link #DEFAULT_INDEX} resources
+     * using the context {@code ClassLoader} of the current thread.
+     */
+    public IndexLoader() {
+        this(Thread.currentThread().getContextClassLoader(), DEFAULT_INDEX);
+    }
+
+    /**
+     * Creates an {@link IndexLoader} that reads the {@link #DEFAULT_INDEX} resources
+     * using the given {@code ClassLoader}.
+     *
+     * @param classLoader the class loader used to read the index and load types
+     */
+    public IndexLoader(ClassLoader classLoader) {
+        this(classLoader, DEFAULT_INDEX);
+    }
+
+    /**
+     * Creates an {@link IndexLoader} that reads the given index resources using the
+     * given {@code ClassLoader}.
+     *
+     * @param classLoader the class loader used to read the index and load types
+     * @param resource the name of the index resources
+     */
+    public IndexLoader(ClassLoader classLoader, String resource) {
+        Objects.requireNonNull(classLoader, "classLoader cannot be null");
+        Objects.requireNonNull(resource, "resource cannot be null");
+        this.classLoader = classLoader;
+        this.resource = resource;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException if an index resource is malformed or refers to
+     *                                  a type that cannot be loaded
+     * @throws IllegalStateException if an index resource cannot be read
+     */
+    @Override
+    public void load(Container container) {
+        Enumeration<URL> indexes;
+        try {
+            indexes = classLoader.getResources(resource);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to locate index " + resource, e);
+        }
+
+        while (indexes.hasMoreElements()) {
+            load(container, indexes.nextElement());
+        }
+    }
+
+    private void load(Container container, URL index) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                index.openStream(), StandardCharsets.UTF_8))) {
+            int lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                try {
+                    bind(container, tokenize(line));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException(
+                            "Invalid entry at line " + lineNumber + " of index " + index,
+                            e);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read index " + index, e);
+        }
+    }
+
+    private void bind(Container container, List<String> tokens) {
+        Class<?> implementation = loadClass(tokens.get(0));
+
+        int next = 1;
+        Annotation qualifier = null;
+        if (tokens.size() > next && tokens.get(next).startsWith("@")) {
+            qualifier = parseQualifier(tokens.get(next));
+            next++;
+        }
+
+        List<Class<?>> types = new ArrayList<>();
+        for (int i = next; i < tokens.size(); i++) {
+            Class<?> type = loadClass(tokens.get(i));
+            if (!type.isAssignableFrom(implementation)) {
+                throw new IllegalArgumentException(
+                        implementation + " cannot be bound to " + type);
+            }
+            types.add(type);
+        }
+
+        bind(container, implementation, types.toArray(new Class<?>[types.size()]),
+             qualifier);
+    }
+
+    /**
+     * Binds the implementation to the given types, which the implementation was
+     * checked to be assignable to, or to itself if there are no types.
+     */
+    private <T> void bind(Container container, Class<T> implementation,
+                          Class<?>[] types, Annotation qualifier) {
+        Container.StrictBinder<T> binder = container.addImplType(implementation)
+                                                    .asStrictBinding();
+        Container.QualifierBinder qualifierBinder;
+        if (types.length == 0) {
+            qualifierBinder = binder.forItself();
+        } else {
+            @SuppressWarnings("unchecked")
+            Class<? super T>[] supertypes = (Class<? super T>[]) types;
+            qualifierBinder = binder.forSpecificTypes(supertypes);
+        }
+        if (qualifier != null) {
+            qualifierBinder.whenQualifiedWith(qualifier);
+        }
+    }
+
+    /**
+     * Splits a line at whitespace that is not part of a quoted value.
+     */
+    private static List<String> tokenize(String line) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                token.append(c);
+                if (c == '\\' && i + 1 < line.length()) {
+                    token.append(line.charAt(++i));
+                } else if (c == '"') {
+                    quoted = false;
+                }
+            } else if (Character.isWhitespace(c)) {
+                if (token.length() > 0) {
+                    tokens.add(token.toString());
+                    token.setLength(0);
+                }
+            } else {
+                token.append(c);
+                quoted = c == '"';
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted value : " + line);
+        }
+        if (token.length() > 0) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    /**
+     * Returns the given qualifier value quoted in the format read by
+     * {@link #parseQualifier(String)}.
+     */
+    static String quote(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '"':
+            case '\\':
+                quoted.append('\\').append(c);
+                break;
+            case '\n':
+                quoted.append("\\n");
+                break;
+            case '\r':
+                quoted.append("\\r");
+                break;
+            case '\t':
+                quoted.append("\\t");
+                break;
+            default:
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    private static String unquote(String value, String token) {
+        StringBuilder unquoted = new StringBuilder(value.length());
+        for (int i = 1; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                if (i != value.length() - 1) {
+                    throw new IllegalArgumentException(
+                            "Unexpected characters after quoted value : " + token);
+                }
+                return unquoted.toString();
+            } else if (c == '\\' && i + 1 < value.length()) {
+                char escaped = value.charAt(++i);
+                switch (escaped) {
+                case '"':
+                case '\\':
+                    unquoted.append(escaped);
+                    break;
+                case 'n':
+                    unquoted.append('\n');
+                    break;
+                case 'r':
+                    unquoted.append('\r');
+                    break;
+                case 't':
+                    unquoted.append('\t');
+                    break;
+                default:
+                    throw new IllegalArgumentException(
+                            "Invalid escape sequence \\" + escaped + " : " + token);
+                }
+            } else {
+                unquoted.append(c);
+            }
+        }
+        throw new IllegalArgumentException("Unterminated quoted value : " + token);
+    }
+
+    private Annotation parseQualifier(String token) {
+        String name = token.substring(1);
+        String value = null;
+        int open = name.indexOf('(');
+        if (open >= 0) {
+            if (!name.endsWith(")")) {
+                throw new IllegalArgumentException(
+                        "Malformed qualifier " + token + ", values containing "
+                        + "whitespace or parentheses must be quoted");
+            }
+            value = name.substring(open + 1, name.length() - 1);
+            name = name.substring(0, open);
+            if (value.startsWith("\"")) {
+                value = unquote(value, token);
+            } else if (value.matches(".*[()\"\\\\].*")) {
+                throw new IllegalArgumentException(
+                        "Qualifier values containing quotes, backslashes or "
+                        + "parentheses must be quoted : " + token);
+            }
+        }
+
+        if (Named.class.getName().equals(name)) {
+            if (value == null) {
+                throw new IllegalArgumentException("Missing value for qualifier " +
+                                                   token);
+            }
+            return Qualifiers.named(value);
+        } else if (value != null) {
+            throw new IllegalArgumentException(
+                    "Only @Named qualifiers may declare a value : " + token);
+        }
+
+        Class<?> type = loadClass(name);
+        if (!type.isAnnotation()) {
+            throw new IllegalArgumentException(type + " is not an annotation");
+        }
+        return Qualifiers.qualifier(type.asSubclass(Annotation.class));
+    }
+
+    private Class<?> loadClass(String name) {
+        try {
+            return Class.forName(name, false, classLoader);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("Unable to load type " + name, e);
+        }
+    }
+
+}
@@ -0,0 +1,202 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.api;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * An annotation processor that writes the {@link IndexLoader#DEFAULT_INDEX index}
+ * read by an {@link IndexLoader} for the implementation types annotated with
+ * {@link Indexed}.  The processor is registered as a service, so it runs whenever
+ * hammer is on the class path of the compiler, unless annotation processing is
+ * disabled.
+ * <p>
+ * The index only lists the implementation types of the current compilation, so
+ * the classes of a JAR file should be compiled together.
+ */
+@SupportedAnnotationTypes("hammer.api.Indexed")
+public class IndexProcessor extends AbstractProcessor {
+
+    private static final String NAMED = "javax.inject.Named";
+    private static final String QUALIFIER = "javax.inject.Qualifier";
+
+    private final List<String> entries = new ArrayList<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations,
+                           RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(Indexed.class)) {
+            String entry = createEntry(element);
+            if (entry != null) {
+                entries.add(entry);
+            }
+        }
+
+        if (roundEnv.processingOver() && !roundEnv.errorRaised()
+            && !entries.isEmpty()) {
+            writeIndex();
+        }
+        return true;
+    }
+
+    /**
+     * Returns the index entry for the given element, or null if the element cannot
+     * be indexed, in which case an error has been reported.
+     */
+    private String createEntry(Element element) {
+        if (element.getKind() != ElementKind.CLASS
+            || element.getModifiers().contains(Modifier.ABSTRACT)) {
+            error("@Indexed may only be used on concrete classes", element);
+            return null;
+        }
+        Elements elements = processingEnv.getElementUtils();
+        Types types = processingEnv.getTypeUtils();
+        TypeElement implementation = (TypeElement) element;
+        StringBuilder entry = new StringBuilder(
+                elements.getBinaryName(implementation));
+
+        AnnotationMirror qualifier = null;
+        AnnotationMirror indexed = null;
+        for (AnnotationMirror annotation : implementation.getAnnotationMirrors()) {
+            TypeElement annotationType =
+                    (TypeElement) annotation.getAnnotationType().asElement();
+            if (annotationType.getQualifiedName()
+                              .contentEquals(Indexed.class.getName())) {
+                indexed = annotation;
+            } else if (isQualifier(annotationType)) {
+                if (qualifier != null) {
+                    error("@Indexed types may declare at most one qualifier",
+                          element);
+                    return null;
+                }
+                qualifier = annotation;
+            }
+        }
+
+        if (qualifier != null) {
+            TypeElement qualifierType =
+                    (TypeElement) qualifier.getAnnotationType().asElement();
+            entry.append(" @").append(elements.getBinaryName(qualifierType));
+            if (qualifierType.getQualifiedName().contentEquals(NAMED)) {
+                Object value = getValue(qualifier, "value");
+                entry.append('(').append(IndexLoader.quote((String) value))
+                     .append(')');
+            } else if (!ElementFilter.methodsIn(qualifierType.getEnclosedElements())
+                                     .isEmpty()) {
+                error("Only @Named qualifiers or qualifiers without elements may be "
+                      + "indexed : " + qualifierType, element);
+                return null;
+            }
+        }
+
+        TypeMirror implementationType = types.erasure(implementation.asType());
+        for (Object value : (List<?>) getValue(indexed, "types")) {
+            TypeMirror type = (TypeMirror) ((AnnotationValue) value).getValue();
+            if (type.getKind() != TypeKind.DECLARED
+                || !types.isAssignable(implementationType, types.erasure(type))) {
+                error(implementation + " cannot be bound to " + type, element);
+                return null;
+            }
+            entry.append(' ').append(elements.getBinaryName(
+                    (TypeElement) ((DeclaredType) type).asElement()));
+        }
+        return entry.toString();
+    }
+
+    private boolean isQualifier(TypeElement annotationType) {
+        for (AnnotationMirror annotation : annotationType.getAnnotationMirrors()) {
+            TypeElement type = (TypeElement) annotation.getAnnotationType().asElement();
+            if (type.getQualifiedName().contentEquals(QUALIFIER)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Object getValue(AnnotationMirror annotation, String name) {
+        Map<? extends ExecutableElement, ? extends AnnotationValue> values =
+                processingEnv.getElementUtils()
+                             .getElementValuesWithDefaults(annotation);
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value
+                : values.entrySet()) {
+            if (value.getKey().getSimpleName().contentEquals(name)) {
+                return value.getValue().getValue();
+            }
+        }
+        throw new IllegalStateException(annotation + " has no element " + name);
+    }
+
+    private void writeIndex() {
+        Collections.sort(entries);
+        try {
+            FileObject index = processingEnv.getFiler().createResource(
+                    StandardLocation.CLASS_OUTPUT, "", IndexLoader.DEFAULT_INDEX);
+            try (Writer writer = new OutputStreamWriter(index.openOutputStream(),
+                                                        StandardCharsets.UTF_8)) {
+                writer.write("# generated by " + IndexProcessor.class.getName()
+                             + "\n");
+                for (String entry : entries) {
+                    writer.write(entry);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "Unable to write index " + IndexLoader.DEFAULT_INDEX + " : " + e);
+        }
+    }
+
+    private void error(String message, Element element) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message,
+                                                 element);
+    }
+
+}
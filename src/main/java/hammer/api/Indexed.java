@@ -0,0 +1,53 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.api;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an implementation type that the {@link IndexProcessor} records in the
+ * {@link IndexLoader#DEFAULT_INDEX index} of the compiled classes, so that an
+ * {@link IndexLoader} adds a strict binding for it at runtime.
+ * <p>
+ * The implementation type is bound to the listed {@link #types() types}, or to its
+ * own type if no types are listed.  If the implementation type is annotated with a
+ * {@code Qualifier} annotation, the bindings are qualified with it.  The qualifier
+ * must either be a {@code javax.inject.Named} annotation or declare no elements.
+ * For example:
+ * <pre>
+ *   &#64;Indexed(types = {Handicapper.class, Service.class})
+ *   &#64;Named("fair")
+ *   public class FairHandicapper implements Handicapper, Service { ... }
+ * </pre>
+ */
+@Target(value = ElementType.TYPE)
+@Retention(value = RetentionPolicy.CLASS)
+@Documented
+public @interface Indexed {
+
+    /**
+     * Returns the types to bind the implementation type to.
+     *
+     * @return the bound types, or an empty array to bind the implementation type to
+     *         its own type
+     */
+    Class<?>[] types() default {};
+
+}
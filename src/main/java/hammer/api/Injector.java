@@ -15,8 +15,12 @@
  */
 package hammer.api;
 
+import java.io.IOException;
 import java.lang.annotation.Annotation;
+import java.nio.file.Path;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import javax.inject.Provider;
 
@@ -77,28 +81,166 @@ public interface Injector {
      */
     <T> Provider<T> getProvider(TypeToken<T> target);
     
+    /**
+     * Retrieve an instance of the type identified by the given key from the container,
+     * honoring the qualifier of the key as an injection point with that qualifier
+     * would.  Otherwise equivalent to {@link #getInstance(hammer.api.TypeToken)}.
+     * 
+     * @param <T> the type of the returned object
+     * @param key the key of the returned object
+     * @return a fully instantiated instance of the requested type with all configured
+     *         dependencies injected according to the rules of JSR-330 annotations
+     */
+    <T> T getInstance(Key<T> key);
+    
+    /**
+     * Retrieve an implementation of a {@code Provider} that will retrieve instances of
+     * the type identified by the given key from the container.  A call to {@code get}
+     * on the returned {@code Provider} is equivalent to a call to
+     * {@link #getInstance(hammer.api.Key)} on this {@link Injector} instance.
+     * 
+     * @param <T> the type of the provided objects
+     * @param key the key of the objects returned by the provider
+     * @return a JSR-330 compliant {@code Provider} of instances of the requested type
+     */
+    <T> Provider<T> getProvider(Key<T> key);
+    
+    /**
+     * Retrieve an instance of the target type from the container if the type is bound,
+     * per {@link #getInstance(java.lang.Class)}.  A type that is not bound is answered
+     * with an empty {@code Optional} rather than an exception, and the answer is cached
+     * so that probing for optional types stays cheap.
+     * 
+     * @param <T> the type of the returned object
+     * @param target the target class type of the returned object
+     * @return an {@code Optional} with an instance of the requested type, or an empty
+     *         {@code Optional} if the type is not bound
+     */
+    <T> Optional<T> findInstance(Class<T> target);
+    
+    /**
+     * Retrieve an instance of the type identified by the given key from the container
+     * if the key is bound, per {@link #findInstance(java.lang.Class)}.
+     * 
+     * @param <T> the type of the returned object
+     * @param key the key of the returned object
+     * @return an {@code Optional} with an instance of the requested type, or an empty
+     *         {@code Optional} if the key is not bound
+     */
+    <T> Optional<T> findInstance(Key<T> key);
+    
+    /**
+     * Indicates whether or not this {@link Injector} can provide instances of the
+     * given type without a qualifier.  The answer is cached, including when the type
+     * is not bound.
+     * 
+     * @param target the target class type
+     * @return {@code true} if {@link #getInstance(java.lang.Class)} can provide the type
+     */
+    boolean hasBinding(Class<?> target);
+    
+    /**
+     * Indicates whether or not this {@link Injector} can provide instances for the
+     * given key, per {@link #hasBinding(java.lang.Class)}.  Keys for {@code Provider}s
+     * and {@code CompletableFuture}s are bound if the type they wrap is bound, and keys
+     * for {@code Optional}s are always bound.
+     * 
+     * @param key the key
+     * @return {@code true} if {@link #getInstance(hammer.api.Key)} can provide the key
+     */
+    boolean hasBinding(Key<?> key);
+    
+    /**
+     * Resolve the given key to the binding of this {@link Injector} that satisfies it.
+     * The returned {@link Handle} can be passed to {@link #get(hammer.api.Handle)} any
+     * number of times to retrieve instances without looking up the key again.
+     * 
+     * @param <T> the type of the objects identified by the key
+     * @param key the key to resolve
+     * @return a {@link Handle} for the resolved key
+     * @throws IllegalArgumentException if this {@link Injector} cannot satisfy the key
+     */
+    <T> Handle<T> resolve(Key<T> key);
+    
+    /**
+     * Retrieve an instance for a {@link Handle} that was resolved by this
+     * {@link Injector} or by the {@link Injector} it was created from using
+     * {@link #enterScope(java.lang.Class)}.  This is equivalent to a call to
+     * {@link #getInstance(hammer.api.Key)} with the key of the handle.
+     * 
+     * @param <T> the type of the returned object
+     * @param handle the resolved handle
+     * @return a fully instantiated instance of the requested type with all configured
+     *         dependencies injected according to the rules of JSR-330 annotations
+     * @throws IllegalArgumentException if the handle was resolved by an unrelated
+     *                                  {@link Injector}
+     */
+    <T> T get(Handle<T> handle);
+    
     /**
      * The set of {@code @Scope}s that this {@link Injector} instance honors.  For every
      * {@code @Scope} annotation in this set, all injections by this {@link Injector} for
-     * a type with said annotation will have one of two behaviors:
+     * a type with said annotation will have one of six behaviors:
      * <ol>
+     * <li>If the {@code Scope} annotation is also annotated with {@link SoftScoped},
+     *     all injections by this injector for a type annotated with the scope will
+     *     inject the same instance until the garbage collector reclaims it.</li>
+     * <li>If the {@code Scope} annotation is also annotated with {@link Refreshable},
+     *     all injections by this injector for a type annotated with the scope will
+     *     inject the same instance until it is rebuilt in the background.</li>
+     * <li>If the {@code Scope} annotation is also annotated with {@link Pooled}, all
+     *     injections by this injector for a type annotated with the scope will inject
+     *     the same instance, leased from a pool until the scope is exited.</li>
+     * <li>If the {@code Scope} annotation is also annotated with {@link ThreadScoped},
+     *     all injections by this injector for a type annotated with the scope will
+     *     inject the same instance <em>per thread</em>.</li>
      * <li>If the {@code Scope} annotation is also annotated with {@link Multiton}, all
      *     injections by this injector for a type annotated will return a unique instance
      *     <em>per {@code Qualifier}</em> annotation associated with the injection
      *     request.  Thus two requests for the type with the same {@code Qualifier} will
      *     inject the same instance, but two requests for the type with different
      *     {@code Qualifiers} will return different instances.</li>
-     * <li>If the {@code Scope} annotation is NOT also annotated with {@link Multiton},
-     *     all injections by this injector for a type annotated with the scope will
-     *     inject the same instance (behaves as a {@code @Singleton}).</li>
+     * <li>Otherwise, all injections by this injector for a type annotated with the
+     *     scope will inject the same instance (behaves as a {@code @Singleton}).</li>
      * </ol>
-     * As a rule, this method always returns a set of at least size two where
-     * {@code @Singleton} and {@link Multiton} are always included.
+     * As a rule, this method always returns a set of at least size five where
+     * {@code @Singleton}, {@link Multiton}, {@link ThreadScoped}, {@link Refreshable}
+     * and {@link SoftScoped} are always included.
      * 
      * @return the {@code Scope}s active for this {@link Injector}
      */
     Set<Annotation> getActiveScopes();
     
+    /**
+     * Rebuild the instance of the {@link Refreshable} type bound to the given key in the
+     * background.  The current instance keeps being injected until the rebuilt instance
+     * replaces it.  If a rebuild of the instance is already in progress, no other
+     * rebuild is started and the future of the rebuild in progress is returned.  If the
+     * rebuild fails, the current instance is kept.
+     * 
+     * @param <T> the type of the refreshed instance
+     * @param key the key of the refreshable binding
+     * @return a future completed with the rebuilt instance, or completed exceptionally
+     *         if the rebuild fails
+     * @throws IllegalArgumentException if the key is not bound to a {@link Refreshable}
+     *                                  type
+     * @throws IllegalStateException if the scope of the type is not active
+     */
+    <T> CompletableFuture<T> refresh(Key<T> key);
+    
+    /**
+     * Releases the instances of {@link ThreadScoped} types that this {@link Injector}
+     * and the injectors it delegates to hold for the calling thread, closing each
+     * released instance that implements {@code AutoCloseable}.  Threads that are
+     * returned to a pool should call this method so that their instances do not
+     * outlive the work that used them; the next request by the thread creates new
+     * instances.
+     * 
+     * @throws InjectionException if a released instance fails to close, after every
+     *                            instance has been released
+     */
+    void releaseThreadScope();
+    
     /**
      * Injects injectable member fields and methods of the given object according to the
      * injection rules as specified by the JSR-330 specification.  This method 
@@ -151,6 +293,15 @@ public interface Injector {
      * Create a new child {@link Injector} with the given scope activated.  The
      * resulting child {@link Injector} will delegate all injection requests to the
      * parent injector with the exception of requests with the given scope.
+     * <p>
+     * Entering a scope is cheap: the child holds no per-thread state and only
+     * allocates storage for its scoped instances once the first one is created, so a
+     * scope can be entered per request.  The child {@link Injector} is immutable and
+     * thread-safe, so it can be handed to any tasks forked to serve the request, which
+     * then share its scoped instances.  The scoped instances are held by the child
+     * alone and are released along with it.  Note that injection loops are detected
+     * with a small stack kept by each thread that provides instances, which a
+     * thread keeps until it terminates.
      * 
      * @param scope the new scope to activate in the new {@link Injector}
      * @return a new {@link Injector} with the given scope activated
@@ -159,4 +310,92 @@ public interface Injector {
      */
     Injector enterScope(Class<? extends Annotation> scope);
     
+    /**
+     * Exit the scope that was entered to create this {@link Injector}, releasing the
+     * instances held for the scope.  Instances of {@link Pooled} types are reset if
+     * they are {@link Poolable} and returned to their pools.  Instances of
+     * {@link ThreadScoped} types held for the calling thread are removed from it, while
+     * those held for other threads are dropped by each thread as it discards stale
+     * thread locals or terminates.  This {@link Injector}
+     * remains usable afterwards, and later requests create or lease new instances as if
+     * the scope had just been entered.
+     * 
+     * @throws IllegalStateException if this {@link Injector} was not created by
+     *                               {@link #enterScope(java.lang.Class)}
+     * @throws InjectionException if a pooled instance fails to reset, after every
+     *                            instance has been released
+     */
+    void exitScope();
+    
+    /**
+     * Create a new child {@link Injector} that layers the bindings of the given
+     * {@link Loader}s over the bindings of this {@link Injector}.  The loaders are
+     * called as by {@link Hammer#createInjector(hammer.api.Loader...)}, but the child
+     * only holds the bindings they add.  Injection requests that are not bound by the
+     * child are delegated to this {@link Injector} without copying any of its
+     * bindings, so creating a child is cheap and its cost does not depend on the size
+     * of this {@link Injector}.  A binding of the child takes precedence over a
+     * binding of this {@link Injector} for the same type and qualifier.
+     * <p>
+     * Requests delegated to this {@link Injector} are satisfied entirely by it, so its
+     * bindings never depend on the bindings of a child and its scoped instances are
+     * shared by all of its children.  Every scope active in this {@link Injector} is
+     * also active in the child, but scoped bindings of the child are instantiated and
+     * held by the child.  The only exception is a scoped binding of this
+     * {@link Injector} whose scope is only active in the child, such as a scope entered
+     * on the child, which is instantiated by the child, using the bindings of the
+     * child, and held by the child.  The child inherits the injection types, the executor for
+     * futures and the instrumentation of this {@link Injector} unless its loaders
+     * configure their own.
+     * 
+     * @param loaders the set of loaders that add the bindings of the child
+     * @return a new child {@link Injector}
+     * @throws IllegalArgumentException if the loaders configure the allowed
+     *                                  injection types
+     */
+    Injector createChildInjector(Loader... loaders);
+    
+    /**
+     * Create a new child {@link Injector} that layers the bindings of the given
+     * {@link Loader}s over the bindings of this {@link Injector}, per
+     * {@link #createChildInjector(hammer.api.Loader...)}.
+     * 
+     * @param loaders the set of loaders that add the bindings of the child
+     * @return a new child {@link Injector}
+     * @throws IllegalArgumentException if the loaders configure the allowed
+     *                                  injection types
+     */
+    Injector createChildInjector(Iterable<? extends Loader> loaders);
+    
+    /**
+     * Export the binding graph of this {@link Injector} in the given format.  The graph
+     * has a node for each binding, including its scope and the types and qualifiers
+     * bound to it, and an edge for each injection point of a binding that can be
+     * satisfied by another binding.  Edges for injection points that are only provided
+     * on demand, such as {@code Provider}s and {@link Lazy}s, are marked as deferred.  If the
+     * {@link Injector} was configured with a {@link ProvisionListener}, each node also
+     * includes the number of instances provided, the cumulative time taken to provide
+     * them and, for scoped bindings, the number of scope hits and misses.  The graph
+     * of a child {@link Injector} also has an external node for each binding of its
+     * parents that satisfies an injection point of the child's bindings.
+     * 
+     * @param out the output to write the graph to
+     * @param format the format of the graph
+     * @throws IOException if the graph cannot be written
+     * @throws IllegalArgumentException if a bound type cannot be introspected
+     * @see Container#configureProvisionListener(hammer.api.ProvisionListener)
+     */
+    void exportGraph(Appendable out, GraphFormat format) throws IOException;
+    
+    /**
+     * Export the binding graph of this {@link Injector} in the given format to the
+     * given file, replacing any existing content.
+     * 
+     * @param file the file to write the graph to
+     * @param format the format of the graph
+     * @throws IOException if the file cannot be written
+     * @see #exportGraph(java.lang.Appendable, hammer.api.GraphFormat)
+     */
+    void exportGraph(Path file, GraphFormat format) throws IOException;
+    
 }
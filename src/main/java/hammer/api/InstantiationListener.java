@@ -0,0 +1,39 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.api;
+
+/**
+ * An {@link InstantiationListener} is notified each time an {@link Injector} eagerly
+ * instantiates a scoped type during creation time.
+ * 
+ * @see Container#configureEagerSingletons(java.util.concurrent.Executor,
+ *      hammer.api.InstantiationListener)
+ */
+public interface InstantiationListener {
+    
+    /**
+     * Called after an instance of the given type has been instantiated.  Note that this
+     * method may be called concurrently from multiple threads.  The instance is
+     * already available when this method is called, so an exception thrown by this
+     * method does not fail its instantiation and is instead passed to the uncaught
+     * exception handler of the calling thread.
+     * 
+     * @param type the type of the instantiated object
+     * @param nanos the time taken to instantiate the object in nanoseconds
+     */
+    void instantiated(TypeToken<?> type, long nanos);
+
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.api;
+
+import java.lang.annotation.Annotation;
+import java.util.Objects;
+
+import javax.inject.Qualifier;
+
+/**
+ * A {@link Key} identifies a binding by the type and the optional {@code Qualifier}
+ * annotation that an injection point would request.  Keys are immutable and may be
+ * used as map keys.  An {@link Injector} can resolve a {@link Key} into a
+ * {@link Handle} once so that repeated requests do not look the binding up again.
+ *
+ * @param <T> the type of the objects identified by the key
+ * @see Injector#resolve(hammer.api.Key)
+ */
+public final class Key<T> {
+
+    private final TypeToken<T> type;
+    private final Annotation qualifier;
+    private final int hashCode;
+
+    private Key(TypeToken<T> type, Annotation qualifier) {
+        Objects.requireNonNull(type, "type cannot be null");
+        if (qualifier != null
+            && qualifier.annotationType().getAnnotation(Qualifier.class) == null) {
+            throw new IllegalArgumentException(
+                    "qualifier must be annotated with @Qualifier");
+        }
+
+        this.type = type;
+        this.qualifier = qualifier;
+        this.hashCode = 31 * type.hashCode() + Objects.hashCode(qualifier);
+    }
+
+    /**
+     * @param <T> the type of the objects identified by the key
+     * @param type the class of the objects
+     * @return a {@link Key} for the given class without a qualifier
+     */
+    public static <T> Key<T> forClass(Class<T> type) {
+        return forClass(type, null);
+    }
+
+    /**
+     * @param <T> the type of the objects identified by the key
+     * @param type the class of the objects
+     * @param qualifier the qualifier annotation or {@code null} if there is none
+     * @return a {@link Key} for the given class and qualifier
+     * @throws IllegalArgumentException if the qualifier is not annotated with
+     *                                  {@code @Qualifier}
+     */
+    public static <T> Key<T> forClass(Class<T> type, Annotation qualifier) {
+        Objects.requireNonNull(type, "type cannot be null");
+        return new Key<>(TypeToken.forClass(type), qualifier);
+    }
+
+    /**
+     * @param <T> the type of the objects identified by the key
+     * @param type the type of the objects
+     * @return a {@link Key} for the given type without a qualifier
+     */
+    public static <T> Key<T> forType(TypeToken<T> type) {
+        return forType(type, null);
+    }
+
+    /**
+     * @param <T> the type of the objects identified by the key
+     * @param type the type of the objects
+     * @param qualifier the qualifier annotation or {@code null} if there is none
+     * @return a {@link Key} for the given type and qualifier
+     * @throws IllegalArgumentException if the qualifier is not annotated with
+     *                                  {@code @Qualifier}
+     */
+    public static <T> Key<T> forType(TypeToken<T> type, Annotation qualifier) {
+        return new Key<>(type, qualifier);
+    }
+
+    /**
+     * @return the type of the objects identified by this key
+     */
+    public TypeToken<T> getType() {
+        return type;
+    }
+
+    /**
+     * @return the qualifier annotation of this key or {@code null} if there is none
+     */
+    public Annotation getQualifier() {
+        return qualifier;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof Key)) {
+            return false;
+        }
+
+        Key<?> other = (Key<?>) obj;
+        return type.equals(other.type) && Objects.equals(qualifier, other.qualifier);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return qualifier == null ? type.toString() : qualifier + " " + type;
+    }
+
+}
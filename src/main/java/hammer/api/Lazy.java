@@ -0,0 +1,40 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.api;
+
+/**
+ * A {@link Lazy} defers the injection request for its type and qualifier until its
+ * first call to {@link #get()} and returns the same instance on every later call.
+ * Types may declare an injection point of type {@code Lazy<T>} instead of {@code T} for
+ * dependencies that are expensive to build and not always used, so that the dependency
+ * and its own dependencies are only built if needed.  Unlike a {@code Provider}, a
+ * {@link Lazy} never builds more than one instance, even for unscoped types.  A
+ * {@link Lazy} is safe for use by multiple threads.
+ *
+ * @param <T> the type of the provided object
+ */
+public interface Lazy<T> {
+
+    /**
+     * Returns the instance of this {@link Lazy}, performing the injection request if
+     * this is the first call.  If the request fails, the exception is thrown to the
+     * caller and the request is performed again by the next call.
+     *
+     * @return the instance of this {@link Lazy}
+     */
+    T get();
+
+}
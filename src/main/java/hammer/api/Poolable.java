@@ -0,0 +1,32 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.api;
+
+/**
+ * A {@link Poolable} is a {@link Pooled} type that needs to be reset before it is
+ * reused.  An {@link Injector} calls {@link #reset()} each time a lease of the instance
+ * ends, before returning the instance to its pool.
+ */
+public interface Poolable {
+    
+    /**
+     * Reset the state of this instance so that it can be leased again.  If this
+     * method throws an exception, the instance is discarded rather than returned to
+     * its pool.
+     */
+    void reset();
+
+}
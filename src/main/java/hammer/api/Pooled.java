@@ -0,0 +1,59 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.api;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import javax.inject.Scope;
+
+/**
+ * A {@link Pooled} is a special type of {@code @Scope} annotation that is given
+ * special semantic meaning when used with an {@link Injector}.  Like {@link Multiton},
+ * a {@link Pooled} annotation has distinct meaning in two contexts:
+ * <ol>
+ * <li>When added as an annotation on a class, and that class is added as an
+ *     implementation type in an {@link Injector}.  In this scenario, an instance of
+ *     the type is leased from a bounded pool for each {@link Injector} that enters the
+ *     scope, and is returned to the pool when that {@link Injector} exits the scope.
+ *     Within the lease, every injection request for the type uses the same instance.
+ *     This allows expensive types that cannot be shared concurrently to be reused
+ *     across requests instead of being instantiated for each one.</li>
+ * <li>When added as an annotation on an annotation type that is also annotated
+ *     with the {@code Scope} annotation.  In this scenario, if the annotated
+ *     {@code Scope} annotation is entered by an {@link Injector}, the custom
+ *     annotation will be treated as a pooled scope annotation, with the same behavior
+ *     as the {@link Pooled} scope.</li>
+ * </ol>
+ * The pooled scope is not active by default.  A lease is started with
+ * {@link Injector#enterScope(java.lang.Class)} and ended with
+ * {@link Injector#exitScope()}.  Instances that implement {@link Poolable} are reset
+ * before they are returned to the pool.  Pooled instances outlive the lease that
+ * created them, so they should only depend on unscoped or singleton types.
+ * 
+ * @see Container#configurePoolCapacity(int)
+ */
+@Target(value = {ElementType.ANNOTATION_TYPE, ElementType.TYPE})
+@Retention(value = RetentionPolicy.RUNTIME)
+@Documented
+@Pooled
+@Scope
+public @interface Pooled {
+
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.api;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * A {@link ProvisionListener} instruments the instances provided by an
+ * {@link Injector}.  When the {@link Injector} is created, the listener is asked once
+ * for a {@link Recorder} for each binding so that no lookups are required when an
+ * instance is later provided.  If no listener is configured, the {@link Injector}
+ * performs no instrumentation at all.
+ *
+ * @see Container#configureProvisionListener(hammer.api.ProvisionListener)
+ * @see ProvisionMetrics
+ */
+public interface ProvisionListener {
+
+    /**
+     * Called once for each binding when an {@link Injector} is created.  Note that a
+     * listener shared by multiple {@link Injector}s is called once per binding of each
+     * {@link Injector}.
+     *
+     * @param type the type of the objects provided by the binding
+     * @param qualifier the qualifier of the binding or {@code null} if it is not
+     *                  qualified, or if it is bound with several qualifiers
+     * @param scope the scope of the binding or {@code null} if it is not scoped
+     * @return the {@link Recorder} to notify of provisions by the binding or
+     *         {@code null} if the binding should not be instrumented
+     */
+    Recorder bind(TypeToken<?> type, Annotation qualifier, Annotation scope);
+
+    /**
+     * A {@link Recorder} is notified of each instance provided by a single binding.
+     * The methods of a {@link Recorder} are called on the injecting thread and may be
+     * called concurrently, so implementations must be thread safe and should be cheap.
+     */
+    public interface Recorder {
+
+        /**
+         * Called after an instance has been successfully provided by the binding.  The
+         * time includes the time taken to provide all of the instance's dependencies.
+         *
+         * @param nanos the time taken to provide the instance in nanoseconds
+         */
+        void provisioned(long nanos);
+
+        /**
+         * Called when a scoped binding provides an existing instance from its scope.
+         */
+        void scopeHit();
+
+        /**
+         * Called when a scoped binding must instantiate a new instance for its scope.
+         */
+        void scopeMiss();
+
+        /**
+         * Called when a scoped binding evicts an instance from its scope to stay within
+         * its bound, or rebuilds an instance that the garbage collector reclaimed.  The
+         * default implementation does nothing.
+         *
+         * @see Container#configureMultitonCapacity(Class, int, hammer.api.EvictionListener)
+         * @see SoftScoped
+         */
+        default void scopeEviction() {
+        }
+    }
+
+}
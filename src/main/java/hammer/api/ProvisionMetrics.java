@@ -0,0 +1,289 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.api;
+
+import java.lang.annotation.Annotation;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link ProvisionListener} that collects provision counts, provision times and
+ * scope hit, miss and eviction counts for each bound type and qualifier.  All
+ * counters are striped {@code LongAdder}s so that recording is cheap under
+ * contention.  Provision times are recorded in a histogram of power of two buckets
+ * from which percentiles can be estimated.  Bindings with the same type and
+ * qualifier, such as members of a multibinding or bindings of multiple
+ * {@link Injector}s sharing this instance, share the same counters.
+ * <p>
+ * The collected values can be read at any time using {@link #snapshot()}.
+ */
+public class ProvisionMetrics implements ProvisionListener {
+
+    private final ConcurrentMap<Key<?>, Counters> counters;
+
+    /**
+     * Creates a new {@link ProvisionMetrics} with no recorded values.
+     */
+    public ProvisionMetrics() {
+        this.counters = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public Recorder bind(TypeToken<?> type, Annotation qualifier, Annotation scope) {
+        Key<?> key = Key.forType(type, qualifier);
+        Counters c = counters.get(key);
+        if (c == null) {
+            Counters created = new Counters(key, scope);
+            c = counters.putIfAbsent(key, created);
+            if (c == null) {
+                return created;
+            }
+        }
+        c.bindScope(scope);
+        return c;
+    }
+
+    /**
+     * Takes a snapshot of the values recorded so far.  Values recorded concurrently
+     * with the snapshot may or may not be included.
+     *
+     * @return an unmodifiable map of the snapshot for the key of each bound type and
+     *         qualifier
+     */
+    public Map<Key<?>, Snapshot> snapshot() {
+        Map<Key<?>, Snapshot> snapshots = new HashMap<>();
+        for (Counters c : counters.values()) {
+            snapshots.put(c.key, c.snapshot());
+        }
+        return Collections.unmodifiableMap(snapshots);
+    }
+
+    /**
+     * Reset all of the recorded values to zero.
+     */
+    public void reset() {
+        for (Counters c : counters.values()) {
+            c.reset();
+        }
+    }
+
+    /**
+     * Returns the index of the histogram bucket for the given time.  Bucket {@code 0}
+     * holds times of zero and bucket {@code i} holds times from {@code 2^(i-1)} to
+     * {@code 2^i - 1} nanoseconds.
+     */
+    private static int bucket(long nanos) {
+        return nanos <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(nanos);
+    }
+
+    private static class Counters implements Recorder {
+        private final Key<?> key;
+        // the scope shared by the bindings or null if they are unscoped or disagree
+        private volatile Annotation scope;
+        private final LongAdder count;
+        private final LongAdder totalNanos;
+        private final LongAdder[] histogram;
+        private final LongAdder hits;
+        private final LongAdder misses;
+        private final LongAdder evictions;
+
+        private Counters(Key<?> key, Annotation scope) {
+            this.key = key;
+            this.scope = scope;
+            this.count = new LongAdder();
+            this.totalNanos = new LongAdder();
+            this.histogram = new LongAdder[64];
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] = new LongAdder();
+            }
+            this.hits = new LongAdder();
+            this.misses = new LongAdder();
+            this.evictions = new LongAdder();
+        }
+
+        private synchronized void bindScope(Annotation bound) {
+            if (!Objects.equals(scope, bound)) {
+                scope = null;
+            }
+        }
+
+        @Override
+        public void provisioned(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            histogram[bucket(nanos)].increment();
+        }
+
+        @Override
+        public void scopeHit() {
+            hits.increment();
+        }
+
+        @Override
+        public void scopeMiss() {
+            misses.increment();
+        }
+
+        @Override
+        public void scopeEviction() {
+            evictions.increment();
+        }
+
+        private Snapshot snapshot() {
+            long[] buckets = new long[histogram.length];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = histogram[i].sum();
+            }
+            return new Snapshot(key, scope, count.sum(), totalNanos.sum(), buckets,
+                                hits.sum(), misses.sum(), evictions.sum());
+        }
+
+        private void reset() {
+            count.reset();
+            totalNanos.reset();
+            for (LongAdder bucket : histogram) {
+                bucket.reset();
+            }
+            hits.reset();
+            misses.reset();
+            evictions.reset();
+        }
+    }
+
+    /**
+     * An immutable view of the values recorded for a single bound type and qualifier.
+     */
+    public static class Snapshot {
+        private final Key<?> key;
+        private final Annotation scope;
+        private final long count;
+        private final long totalNanos;
+        private final long[] histogram;
+        private final long scopeHits;
+        private final long scopeMisses;
+        private final long scopeEvictions;
+
+        private Snapshot(Key<?> key, Annotation scope, long count,
+                         long totalNanos, long[] histogram, long scopeHits,
+                         long scopeMisses, long scopeEvictions) {
+            this.key = key;
+            this.scope = scope;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.histogram = histogram;
+            this.scopeHits = scopeHits;
+            this.scopeMisses = scopeMisses;
+            this.scopeEvictions = scopeEvictions;
+        }
+
+        /**
+         * @return the key of the bound type and qualifier
+         */
+        public Key<?> getKey() {
+            return key;
+        }
+
+        /**
+         * @return the scope of the bound type or {@code null} if it is not scoped, or
+         *         if the bindings sharing these values have different scopes
+         */
+        public Annotation getScope() {
+            return scope;
+        }
+
+        /**
+         * @return the number of instances provided
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return the cumulative time taken to provide the instances in nanoseconds
+         */
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        /**
+         * Estimates the given percentile of the time taken to provide an instance.  The
+         * estimate is the upper bound of the histogram bucket containing the percentile
+         * and is thus at most twice the actual value.
+         *
+         * @param percentile the percentile between {@code 0} and {@code 100}
+         * @return the estimated percentile in nanoseconds or {@code 0} if no instances
+         *         have been provided
+         * @throws IllegalArgumentException if the percentile is out of range
+         */
+        public long getPercentileNanos(double percentile) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException(
+                        "Percentile must be between 0 and 100 : " + percentile);
+            }
+
+            long total = 0;
+            for (long bucketCount : histogram) {
+                total += bucketCount;
+            }
+            long rank = (long) Math.ceil(total * percentile / 100);
+            long seen = 0;
+            for (int i = 0; i < histogram.length; i++) {
+                seen += histogram[i];
+                if (seen > 0 && seen >= rank) {
+                    return i == 0 ? 0 : (1L << i) - 1;
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * @return the number of requests served by an existing scoped instance
+         */
+        public long getScopeHits() {
+            return scopeHits;
+        }
+
+        /**
+         * @return the number of requests that instantiated a new scoped instance
+         */
+        public long getScopeMisses() {
+            return scopeMisses;
+        }
+
+        /**
+         * @return the number of scoped instances evicted to stay within a bound or
+         *         rebuilt after the garbage collector reclaimed them
+         */
+        public long getScopeEvictions() {
+            return scopeEvictions;
+        }
+
+        @Override
+        public String toString() {
+            return key + " [count=" + count + ", totalNanos=" + totalNanos
+                   + ", p50=" + getPercentileNanos(50) + ", p99="
+                   + getPercentileNanos(99) + ", scopeHits=" + scopeHits
+                   + ", scopeMisses=" + scopeMisses
+                   + ", scopeEvictions=" + scopeEvictions + "]";
+        }
+    }
+
+}
@@ -0,0 +1,71 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.api;
+
+import java.lang.annotation.Annotation;
+import java.util.List;
+
+/**
+ * A {@link ProvisionTrace} records a single provision by an {@link Injector} along
+ * with the nested provisions of its dependencies, forming a tree.  The
+ * {@code toString} representation of a trace renders the whole tree.
+ * 
+ * @see ProvisionTracer
+ */
+public interface ProvisionTrace {
+    
+    /**
+     * @return the type of the provided object
+     */
+    TypeToken<?> getType();
+    
+    /**
+     * @return the qualifier of the injection request or {@code null} if none
+     */
+    Annotation getQualifier();
+    
+    /**
+     * @return the kind of the binding that provided the object, one of
+     *         {@code instance}, {@code unscoped}, {@code singleton},
+     *         {@code multiton}, {@code thread}, {@code pooled},
+     *         {@code refreshable} or {@code soft}
+     */
+    String getKind();
+    
+    /**
+     * @return {@code true} if a scoped binding provided an existing instance from its
+     *         scope rather than instantiating a new one
+     */
+    boolean isScopeHit();
+    
+    /**
+     * @return the time taken by the provision in nanoseconds, including the time
+     *         taken by the nested provisions
+     */
+    long getNanos();
+    
+    /**
+     * @return the time taken by the provision in nanoseconds, excluding the time
+     *         taken by the nested provisions
+     */
+    long getSelfNanos();
+    
+    /**
+     * @return the traces of the nested provisions in the order they completed
+     */
+    List<ProvisionTrace> getChildren();
+    
+}
@@ -0,0 +1,36 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.api;
+
+/**
+ * A {@link ProvisionTracer} receives the {@link ProvisionTrace} of every outermost
+ * provision by an {@link Injector}, such as a call to
+ * {@link Injector#getInstance(java.lang.Class)}.
+ * 
+ * @see Container#configureProvisionTracer(hammer.api.ProvisionTracer)
+ */
+public interface ProvisionTracer {
+    
+    /**
+     * Called on the injecting thread after an outermost provision completes
+     * successfully.  Note that this method may be called concurrently from multiple
+     * threads.
+     * 
+     * @param trace the trace of the provision and all of its nested provisions
+     */
+    void traced(ProvisionTrace trace);
+    
+}
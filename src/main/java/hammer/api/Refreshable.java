@@ -0,0 +1,57 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.api;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import javax.inject.Scope;
+
+/**
+ * A {@link Refreshable} is a special type of {@code @Scope} annotation that is given
+ * special semantic meaning when used with an {@link Injector}.  Like {@link Multiton},
+ * a {@link Refreshable} annotation has distinct meaning in two contexts:
+ * <ol>
+ * <li>When added as an annotation on a class, and that class is added as an
+ *     implementation type in an {@link Injector}.  In this scenario, the injector
+ *     treats the type as a singleton whose instance is rebuilt once it is older than
+ *     the configured refresh interval, or when {@link Injector#refresh(hammer.api.Key)}
+ *     is called.  Rebuilds run in the background and the current instance keeps being
+ *     injected until the new instance is ready, so injection requests never wait for
+ *     a rebuild.  This suits types that wrap slowly changing state, such as
+ *     configuration read from files.</li>
+ * <li>When added as an annotation on an annotation type that is also annotated
+ *     with the {@code Scope} annotation.  In this scenario, if the annotated
+ *     {@code Scope} annotation is used as an active scope in an {@link Injector}, the
+ *     custom annotation will be treated as a refreshable annotation, with the same
+ *     behavior as the {@link Refreshable} scope.</li>
+ * </ol>
+ * Objects that have been injected with an instance keep that instance after it is
+ * rebuilt, so types that should observe rebuilds should inject a {@code Provider}.
+ * 
+ * @see Container#configureRefreshInterval(long, java.util.concurrent.TimeUnit)
+ */
+@Target(value = {ElementType.ANNOTATION_TYPE, ElementType.TYPE})
+@Retention(value = RetentionPolicy.RUNTIME)
+@Documented
+@Refreshable
+@Scope
+public @interface Refreshable {
+
+}
@@ -43,6 +43,21 @@ public class Scopes {
      */
     public static final Multiton MULTITON = new MultitonImpl();
     
+    /**
+     * An instance of the {@link ThreadScoped} scope.
+     */
+    public static final ThreadScoped THREAD = new ThreadScopedImpl();
+    
+    /**
+     * An instance of the {@link Refreshable} scope.
+     */
+    public static final Refreshable REFRESHABLE = new RefreshableImpl();
+    
+    /**
+     * An instance of the {@link SoftScoped} scope.
+     */
+    public static final SoftScoped SOFT = new SoftScopedImpl();
+    
     /**
      * Creates an instance of an annotation that is annotated with {@link Scope}.
      * This is a convenience method and can only be used for simple annotations that do
@@ -118,4 +133,25 @@ public class Scopes {
             super(Multiton.class);
         }
     }
+    
+    private static class ThreadScopedImpl extends SimpleAnnotation
+            implements ThreadScoped {
+        private ThreadScopedImpl() {
+            super(ThreadScoped.class);
+        }
+    }
+    
+    private static class RefreshableImpl extends SimpleAnnotation
+            implements Refreshable {
+        private RefreshableImpl() {
+            super(Refreshable.class);
+        }
+    }
+    
+    private static class SoftScopedImpl extends SimpleAnnotation
+            implements SoftScoped {
+        private SoftScopedImpl() {
+            super(SoftScoped.class);
+        }
+    }
 }
@@ -0,0 +1,58 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.api;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import javax.inject.Scope;
+
+/**
+ * A {@link SoftScoped} is a special type of {@code @Scope} annotation that is given
+ * special semantic meaning when used with an {@link Injector}.  Like {@link Multiton},
+ * a {@link SoftScoped} annotation has distinct meaning in two contexts:
+ * <ol>
+ * <li>When added as an annotation on a class, and that class is added as an
+ *     implementation type in an {@link Injector}.  In this scenario, the injector
+ *     treats the type as a singleton whose instance is only softly reachable from
+ *     the injector, so the garbage collector may reclaim it when memory runs low.
+ *     The next injection request after the instance has been reclaimed transparently
+ *     builds a new instance.  This suits types that are expensive to build but can
+ *     always be rebuilt, such as caches and lookup tables.</li>
+ * <li>When added as an annotation on an annotation type that is also annotated
+ *     with the {@code Scope} annotation.  In this scenario, if the annotated
+ *     {@code Scope} annotation is used as an active scope in an {@link Injector}, the
+ *     custom annotation will be treated as a soft scoped annotation, with the same
+ *     behavior as the {@link SoftScoped} scope.</li>
+ * </ol>
+ * Objects that have been injected with an instance keep it strongly reachable, so
+ * types that should let the instance be reclaimed should inject a {@code Provider}.
+ * Each rebuild of a reclaimed instance is reported as a scope eviction to the
+ * configured {@link ProvisionListener}.
+ * 
+ * @see ProvisionMetrics.Snapshot#getScopeEvictions()
+ */
+@Target(value = {ElementType.ANNOTATION_TYPE, ElementType.TYPE})
+@Retention(value = RetentionPolicy.RUNTIME)
+@Documented
+@SoftScoped
+@Scope
+public @interface SoftScoped {
+
+}
@@ -0,0 +1,53 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.api;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import javax.inject.Scope;
+
+/**
+ * A {@link ThreadScoped} is a special type of {@code @Scope} annotation that is given
+ * special semantic meaning when used with an {@link Injector}.  Like {@link Multiton},
+ * a {@link ThreadScoped} annotation has distinct meaning in two contexts:
+ * <ol>
+ * <li>When added as an annotation on a class, and that class is added as an
+ *     implementation type in an {@link Injector}.  In this scenario, the injector
+ *     associates one instance of the type with each thread, so every injection request
+ *     made by the same thread will use the same instance.  This allows types that are
+ *     not thread-safe to be reused without locking.</li>
+ * <li>When added as an annotation on an annotation type that is also annotated
+ *     with the {@code Scope} annotation.  In this scenario, if the annotated
+ *     {@code Scope} annotation is used as an active scope in an {@link Injector}, the
+ *     custom annotation will be treated as a thread scope annotation, with the same
+ *     behavior as the {@link ThreadScoped} scope.</li>
+ * </ol>
+ * Instances are held until the thread terminates or until
+ * {@link Injector#releaseThreadScope()} is called by the thread, which should be done
+ * by threads that are returned to a pool.
+ */
+@Target(value = {ElementType.ANNOTATION_TYPE, ElementType.TYPE})
+@Retention(value = RetentionPolicy.RUNTIME)
+@Documented
+@ThreadScoped
+@Scope
+public @interface ThreadScoped {
+
+}
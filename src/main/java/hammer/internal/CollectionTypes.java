@@ -29,6 +29,10 @@ class CollectionTypes {
                 List.class, elementType.getType()));
     }
     
+    static TypeToken<?> parameterizedType(Class<?> rawType, Type... typeArguments) {
+        return TypeToken.forType(new ParameterizedTypeImpl(rawType, typeArguments));
+    }
+    
     private static class ParameterizedTypeImpl implements ParameterizedType {
         
         private final Class<?> rawType;
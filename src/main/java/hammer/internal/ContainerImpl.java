@@ -18,14 +18,26 @@ package hammer.internal;
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 import hammer.api.Container;
+import hammer.api.EvictionListener;
 import hammer.api.InjectionType;
+import hammer.api.InstantiationListener;
+import hammer.api.Loader;
+import hammer.api.ProvisionListener;
+import hammer.api.ProvisionTracer;
 import hammer.api.Scopes;
 import hammer.api.TypeToken;
 import javax.inject.Scope;
@@ -70,6 +82,46 @@ class ContainerImpl implements Container {
      */
     private final Set<Class<?>> staticInjectionsEnabled;
     
+    /**
+     * The executor used to eagerly instantiate singletons or null if disabled.
+     */
+    private Executor eagerExecutor;
+    
+    /**
+     * The listener notified of eager singleton instantiations or null if none.
+     */
+    private InstantiationListener eagerListener;
+    
+    /**
+     * True if injector creation waits for the eager singletons to be instantiated.
+     */
+    private boolean eagerBlocking;
+    
+    /**
+     * The listener notified of provided instances or null if none.
+     */
+    private ProvisionListener provisionListener;
+    
+    /**
+     * The tracer of outermost provisions or null if none.
+     */
+    private ProvisionTracer provisionTracer;
+    
+    /**
+     * The capacity of the pool of each pooled type or 0 if not configured.
+     */
+    private int poolCapacity;
+    
+    /**
+     * The refresh interval of refreshable types in nanoseconds or 0 if not configured.
+     */
+    private long refreshIntervalNanos;
+    
+    /**
+     * The bounds of the instances of the bounded multiton types.
+     */
+    private final Map<Class<?>, MultitonCapacity> multitonCapacities;
+    
     /**
      * The history of type binding invocations made on this container.
      */
@@ -100,6 +152,16 @@ class ContainerImpl implements Container {
      */
     private final List<SetBinding<?>> setBindings;
     
+    /**
+     * The injection profiles restored from a snapshot or empty if none.
+     */
+    private Map<TypeToken<?>, Introspector.InjectionProfile> preloadedProfiles;
+    
+    /**
+     * The injection types for which the preloaded injection profiles were resolved.
+     */
+    private Set<InjectionType> preloadedInjectionTypes;
+    
     ContainerImpl() {
         active = true;
         multiBindingsEnabled = false;
@@ -110,6 +172,9 @@ class ContainerImpl implements Container {
         activeScopes = new HashSet<>();
         activeScopes.add(Scopes.SINGLETON);
         activeScopes.add(Scopes.MULTITON);
+        activeScopes.add(Scopes.THREAD);
+        activeScopes.add(Scopes.REFRESHABLE);
+        activeScopes.add(Scopes.SOFT);
         staticInjectionsEnabled = new HashSet<>();
         typeBindingInvocations = new ArrayList<>();
         instanceBindingInvocations = new ArrayList<>();
@@ -117,6 +182,8 @@ class ContainerImpl implements Container {
         mapBindings = new ArrayList<>();
         listBindings = new ArrayList<>();
         setBindings = new ArrayList<>();
+        multitonCapacities = new LinkedHashMap<>();
+        preloadedProfiles = Collections.emptyMap();
     }
     
     /** === Container implementation === **/
@@ -198,6 +265,178 @@ class ContainerImpl implements Container {
         }
     }
     
+    @Override
+    public void configureEagerSingletons(Executor executor) {
+        configureEagerSingletons(executor, null);
+    }
+
+    @Override
+    public void configureEagerSingletons(Executor executor, 
+                                         InstantiationListener listener) {
+        verifyActive();
+        
+        Objects.requireNonNull(executor, "executor cannot be null");
+        this.eagerExecutor = executor;
+        this.eagerListener = listener;
+        this.eagerBlocking = true;
+    }
+
+    @Override
+    public void configureAsyncSingletons(Executor executor) {
+        configureAsyncSingletons(executor, null);
+    }
+
+    @Override
+    public void configureAsyncSingletons(Executor executor, 
+                                         InstantiationListener listener) {
+        verifyActive();
+        
+        Objects.requireNonNull(executor, "executor cannot be null");
+        this.eagerExecutor = executor;
+        this.eagerListener = listener;
+        this.eagerBlocking = false;
+    }
+
+    @Override
+    public void configureProvisionListener(ProvisionListener listener) {
+        verifyActive();
+        
+        Objects.requireNonNull(listener, "listener cannot be null");
+        this.provisionListener = listener;
+    }
+
+    @Override
+    public void configureProvisionTracer(ProvisionTracer tracer) {
+        verifyActive();
+        
+        Objects.requireNonNull(tracer, "tracer cannot be null");
+        this.provisionTracer = tracer;
+    }
+
+    @Override
+    public void configurePoolCapacity(int capacity) {
+        verifyActive();
+        
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.poolCapacity = capacity;
+    }
+
+    @Override
+    public void configureRefreshInterval(long interval, TimeUnit unit) {
+        verifyActive();
+        
+        Objects.requireNonNull(unit, "unit cannot be null");
+        if (interval <= 0) {
+            throw new IllegalArgumentException("interval must be positive");
+        }
+        this.refreshIntervalNanos = unit.toNanos(interval);
+    }
+
+    @Override
+    public void configureMultitonCapacity(Class<?> type, int capacity,
+                                          EvictionListener listener) {
+        verifyActive();
+        
+        Objects.requireNonNull(type, "type cannot be null");
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        multitonCapacities.put(type, new MultitonCapacity(capacity, listener));
+    }
+    
+    /**
+     * Load a new container using the given loaders, calling each loader in turn with
+     * the same container instance.
+     * 
+     * @param loaders the loaders to use
+     * @return the result of the loaded container
+     */
+    static Result load(Iterable<? extends Loader> loaders) {
+        return load(new ContainerImpl(), loaders);
+    }
+    
+    /**
+     * Load the given container using the given loaders, calling each loader in turn
+     * with the container.  This allows loaders to add to a container that has already
+     * been configured, such as one restored from a snapshot.
+     * 
+     * @param container the container to load
+     * @param loaders the loaders to use
+     * @return the result of the loaded container
+     */
+    static Result load(ContainerImpl container, Iterable<? extends Loader> loaders) {
+        for (Loader loader : loaders) {
+            InjectionEvents.Span span = InjectionEvents.EVENTS.beginLoader(loader);
+            loader.load(container);
+            span.end();
+        }
+        return container.unload();
+    }
+    
+    /**
+     * Load a new container using the given loaders, calling the loaders concurrently
+     * using the given executor.  Each loader is given its own container, and once all
+     * of the loaders are complete, the containers are merged in the order in which
+     * the loaders are provided.  The result is thus identical to calling the loaders
+     * sequentially with the same container instance.  If any loader fails, the failure
+     * of the first such loader in order is rethrown.
+     * 
+     * @param loaders the loaders to use
+     * @param executor the executor used to call the loaders
+     * @return the result of the merged containers
+     */
+    static Result load(Iterable<? extends Loader> loaders, Executor executor) {
+        List<ContainerImpl> containers = new ArrayList<>();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (final Loader loader : loaders) {
+            final ContainerImpl container = new ContainerImpl();
+            containers.add(container);
+            futures.add(CompletableFuture.runAsync(new Runnable() {
+                @Override
+                public void run() {
+                    InjectionEvents.Span span =
+                            InjectionEvents.EVENTS.beginLoader(loader);
+                    loader.load(container);
+                    span.end();
+                    container.unload();
+                }
+            }, executor));
+        }
+        
+        ContainerImpl merged = new ContainerImpl();
+        for (int i = 0; i < containers.size(); i++) {
+            try {
+                futures.get(i).join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                } else if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw e;
+            }
+            merged.merge(containers.get(i));
+        }
+        return merged.unload();
+    }
+    
+    /**
+     * Provide injection profiles that were resolved ahead of time so that the types
+     * need not be introspected again.  The profiles are only used if the injection
+     * types of this container are the same once it is unloaded as they are now.
+     * 
+     * @param profiles the injection profiles by type
+     */
+    void preloadInjectionProfiles(
+            Map<TypeToken<?>, Introspector.InjectionProfile> profiles) {
+        verifyActive();
+        
+        this.preloadedProfiles = profiles;
+        this.preloadedInjectionTypes = new HashSet<>(injectionTypes);
+    }
+    
     Result unload() {
         verifyActive();
         for (TypeBindingInvocationImpl t : typeBindingInvocations) {
@@ -210,6 +449,48 @@ class ContainerImpl implements Container {
         return new Result();
     }
     
+    /**
+     * Merge the configuration of the given unloaded container into this container as
+     * if the calls made on the given container were made on this container.
+     * 
+     * @param other the container to merge
+     */
+    private void merge(ContainerImpl other) {
+        verifyActive();
+        
+        if (other.injectionTypesReset) {
+            allowInjections(other.injectionTypes.toArray(
+                    new InjectionType[other.injectionTypes.size()]));
+        }
+        activeScopes.addAll(other.activeScopes);
+        for (Class<?> type : other.staticInjectionsEnabled) {
+            configureStaticInjections(type);
+        }
+        if (other.eagerExecutor != null) {
+            this.eagerExecutor = other.eagerExecutor;
+            this.eagerListener = other.eagerListener;
+            this.eagerBlocking = other.eagerBlocking;
+        }
+        if (other.provisionListener != null) {
+            this.provisionListener = other.provisionListener;
+        }
+        if (other.provisionTracer != null) {
+            this.provisionTracer = other.provisionTracer;
+        }
+        if (other.poolCapacity != 0) {
+            this.poolCapacity = other.poolCapacity;
+        }
+        if (other.refreshIntervalNanos != 0) {
+            this.refreshIntervalNanos = other.refreshIntervalNanos;
+        }
+        multitonCapacities.putAll(other.multitonCapacities);
+        
+        strictBindings.addAll(other.strictBindings);
+        mapBindings.addAll(other.mapBindings);
+        listBindings.addAll(other.listBindings);
+        setBindings.addAll(other.setBindings);
+    }
+    
     /**
      * Ensures that the container is still active for loading.
      */
@@ -384,12 +665,39 @@ class ContainerImpl implements Container {
         
     }
     
+    /**
+     * The bound of the instances of a multiton type along with the listener notified
+     * of its evicted instances.
+     */
+    static final class MultitonCapacity {
+        
+        private final int capacity;
+        private final EvictionListener listener;
+        
+        MultitonCapacity(int capacity, EvictionListener listener) {
+            this.capacity = capacity;
+            this.listener = listener;
+        }
+        
+        int getCapacity() {
+            return capacity;
+        }
+        
+        EvictionListener getListener() {
+            return listener;
+        }
+    }
+    
     class Result {
         
         Set<InjectionType> getInjectionTypes() {
             return injectionTypes;
         }
         
+        boolean isInjectionTypesReset() {
+            return injectionTypesReset;
+        }
+        
         Set<Annotation> getActiveScopes() {
             return activeScopes;
         }
@@ -413,6 +721,45 @@ class ContainerImpl implements Container {
         List<SetBinding<?>> getSetBindings() {
             return setBindings;
         }
+        
+        Executor getEagerExecutor() {
+            return eagerExecutor;
+        }
+        
+        InstantiationListener getEagerListener() {
+            return eagerListener;
+        }
+        
+        boolean isEagerBlocking() {
+            return eagerBlocking;
+        }
+        
+        ProvisionListener getProvisionListener() {
+            return provisionListener;
+        }
+        
+        ProvisionTracer getProvisionTracer() {
+            return provisionTracer;
+        }
+        
+        int getPoolCapacity() {
+            return poolCapacity;
+        }
+        
+        long getRefreshIntervalNanos() {
+            return refreshIntervalNanos;
+        }
+        
+        Map<Class<?>, MultitonCapacity> getMultitonCapacities() {
+            return multitonCapacities;
+        }
+        
+        Map<TypeToken<?>, Introspector.InjectionProfile> getInjectionProfiles() {
+            if (!injectionTypes.equals(preloadedInjectionTypes)) {
+                return Collections.emptyMap();
+            }
+            return preloadedProfiles;
+        }
     }
 
 }
@@ -0,0 +1,221 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.internal;
+
+import java.lang.annotation.Annotation;
+import java.util.Objects;
+
+import hammer.api.Loader;
+import hammer.api.TypeToken;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Emits {@link InjectionEvents} as Java Flight Recorder events.  Injector creation
+ * events are always emitted to the recorder, which discards them unless they are
+ * enabled in a running recording.  Provisions are only timed while the
+ * {@code hammer.Provision} event is enabled in a running recording.  Unlike the other
+ * events, it is disabled by default, so a continuous recording that does not enable
+ * it explicitly adds no cost to provisions.  Provisions are emitted if they exceed the
+ * threshold of the event, which defaults to 10 ms and may be configured in the
+ * recording settings like that of any other event.
+ */
+class FlightRecorderEvents extends InjectionEvents {
+
+    // true while the provision event is enabled in at least one running recording
+    private volatile boolean provisionEnabled;
+
+    private FlightRecorderEvents() {
+    }
+
+    /**
+     * Create the events and start tracking the state of the recordings.
+     */
+    static FlightRecorderEvents create() {
+        final FlightRecorderEvents events = new FlightRecorderEvents();
+        FlightRecorder.addListener(new FlightRecorderListener() {
+            @Override
+            public void recorderInitialized(FlightRecorder recorder) {
+                events.update(recorder);
+            }
+
+            @Override
+            public void recordingStateChanged(Recording changed) {
+                events.update(FlightRecorder.getFlightRecorder());
+            }
+        });
+        return events;
+    }
+
+    @Override
+    Span beginCreation() {
+        return new EventSpan(new CreationEvent());
+    }
+
+    @Override
+    Span beginLoader(Loader loader) {
+        LoaderEvent event = new LoaderEvent();
+        event.loader = loader.getClass();
+        return new EventSpan(event);
+    }
+
+    @Override
+    Span beginIntrospection(TypeToken<?> type) {
+        IntrospectionEvent event = new IntrospectionEvent();
+        event.type = type.toString();
+        return new EventSpan(event);
+    }
+
+    @Override
+    Span beginValidation(ContainerImpl.Result result) {
+        ValidationEvent event = new ValidationEvent();
+        event.bindings = result.getStrictBindings().size()
+                         + result.getMapBindings().size()
+                         + result.getListBindings().size()
+                         + result.getSetBindings().size();
+        return new EventSpan(event);
+    }
+
+    @Override
+    boolean isProvisionEnabled() {
+        return provisionEnabled;
+    }
+
+    @Override
+    ProvisionSpan beginProvision() {
+        final ProvisionEvent event = new ProvisionEvent();
+        event.begin();
+        return new ProvisionSpan() {
+            @Override
+            public void end(InjectionProvider provider, InjectionRequest request,
+                            int depth) {
+                event.end();
+                if (event.shouldCommit()) {
+                    Annotation scope = InjectionContext.getScope(provider);
+                    event.type = provider.getType().toString();
+                    event.requestedType = request.getType().toString();
+                    event.qualifier = Objects.toString(request.getQualifier(), null);
+                    event.scope = scope == null ? null : scope.annotationType().getName();
+                    event.depth = depth;
+                    event.commit();
+                }
+            }
+        };
+    }
+
+    private void update(FlightRecorder recorder) {
+        boolean running = false;
+        for (Recording r : recorder.getRecordings()) {
+            if (r.getState() == RecordingState.RUNNING) {
+                running = true;
+                break;
+            }
+        }
+        this.provisionEnabled = running
+                && EventType.getEventType(ProvisionEvent.class).isEnabled();
+    }
+
+    private static class EventSpan implements Span {
+        private final Event event;
+
+        private EventSpan(Event event) {
+            this.event = event;
+            event.begin();
+        }
+
+        @Override
+        public void end() {
+            event.end();
+            if (event.shouldCommit()) {
+                event.commit();
+            }
+        }
+    }
+
+    @Name("hammer.InjectorCreation")
+    @Label("Injector Creation")
+    @Category("Hammer")
+    @Description("Creation of an injector, including loading and validation")
+    @StackTrace(false)
+    static class CreationEvent extends Event {
+    }
+
+    @Name("hammer.LoaderExecution")
+    @Label("Loader Execution")
+    @Category("Hammer")
+    @Description("Execution of a loader while creating an injector")
+    @StackTrace(false)
+    static class LoaderEvent extends Event {
+        @Label("Loader")
+        Class<?> loader;
+    }
+
+    @Name("hammer.Introspection")
+    @Label("Type Introspection")
+    @Category("Hammer")
+    @Description("Introspection of the injection points of a type")
+    @StackTrace(false)
+    static class IntrospectionEvent extends Event {
+        @Label("Type")
+        String type;
+    }
+
+    @Name("hammer.BindingValidation")
+    @Label("Binding Validation")
+    @Category("Hammer")
+    @Description("Construction and validation of the bindings of an injector")
+    @StackTrace(false)
+    static class ValidationEvent extends Event {
+        @Label("Bindings")
+        int bindings;
+    }
+
+    @Name("hammer.Provision")
+    @Label("Provision")
+    @Category("Hammer")
+    @Description("Provision of an instance that exceeded the threshold")
+    @Threshold("10 ms")
+    @Enabled(false)
+    static class ProvisionEvent extends Event {
+        @Label("Type")
+        String type;
+
+        @Label("Requested Type")
+        String requestedType;
+
+        @Label("Qualifier")
+        String qualifier;
+
+        @Label("Scope")
+        String scope;
+
+        @Label("Depth")
+        @Description("Number of nested provisions in progress, including this one")
+        int depth;
+    }
+
+}
@@ -0,0 +1,319 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.internal;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import hammer.api.GraphFormat;
+
+/**
+ * Exports the binding graph of an {@link InjectionContext}.  Each node of the graph is
+ * an {@link InjectionProvider} along with the injection requests bound to it and its
+ * recorded provision statistics, if instrumentation is enabled.  Each edge of the
+ * graph is an {@link InjectionPoint} of a provider that can be satisfied.  For a child
+ * context, the providers of the parent contexts that satisfy an injection point are
+ * added as external nodes, without their own injection points.  Nodes are ordered by
+ * type, with the external nodes last, so that exports of the same configuration can
+ * be compared.
+ */
+class GraphExporter {
+
+    private final InjectionContext context;
+    private final List<InjectionProvider> nodes;
+    private final Map<InjectionProvider, Integer> ids;
+    private final Map<InjectionProvider, List<InjectionRequest>> bindings;
+    // the injection points of each node of the context, which are empty for the
+    // external nodes
+    private final Map<InjectionProvider, List<InjectionPoint>> points;
+    // the parent context that binds each external node
+    private final Map<InjectionProvider, InjectionContext> layers;
+
+    GraphExporter(InjectionContext context) {
+        this.context = context;
+        this.nodes = new ArrayList<>(context.getProviders());
+        sortByType(nodes);
+
+        this.ids = new IdentityHashMap<>();
+        this.bindings = new IdentityHashMap<>();
+        this.points = new IdentityHashMap<>();
+        this.layers = new IdentityHashMap<>();
+        for (InjectionProvider node : nodes) {
+            ids.put(node, ids.size());
+            bindings.put(node, new ArrayList<InjectionRequest>());
+            points.put(node, node.getInjectionPoints(context));
+        }
+        addBindings(context);
+        addExternalNodes();
+        for (List<InjectionRequest> requests : bindings.values()) {
+            Collections.sort(requests, new Comparator<InjectionRequest>() {
+                @Override
+                public int compare(InjectionRequest r1, InjectionRequest r2) {
+                    return describe(r1).compareTo(describe(r2));
+                }
+            });
+        }
+    }
+
+    /**
+     * Adds the providers of the parent contexts that satisfy the injection points of
+     * the nodes of the context.
+     */
+    private void addExternalNodes() {
+        List<InjectionProvider> external = new ArrayList<>();
+        for (InjectionContext layer = context.getFallbackContext(); layer != null;
+             layer = layer.getFallbackContext()) {
+            Set<InjectionProvider> providers = layer.getProviders();
+            for (InjectionProvider node : nodes) {
+                for (InjectionPoint point : points.get(node)) {
+                    InjectionProvider provider = point.getProvider();
+                    if (provider != null && !bindings.containsKey(provider)
+                        && providers.contains(provider)) {
+                        bindings.put(provider, new ArrayList<InjectionRequest>());
+                        layers.put(provider, layer);
+                        external.add(provider);
+                    }
+                }
+            }
+            addBindings(layer);
+        }
+        
+        sortByType(external);
+        for (InjectionProvider node : external) {
+            nodes.add(node);
+            ids.put(node, ids.size());
+            points.put(node, Collections.<InjectionPoint>emptyList());
+        }
+    }
+    
+    /**
+     * Adds the requests bound by the given context to the bindings of its nodes.
+     */
+    private void addBindings(InjectionContext layer) {
+        for (Map.Entry<InjectionRequest, InjectionProvider> entry :
+                layer.getInjectionRequests().entrySet()) {
+            InjectionProvider provider = entry.getValue();
+            if (layer == context || layers.get(provider) == layer) {
+                bindings.get(provider).add(entry.getKey());
+            }
+        }
+    }
+    
+    /**
+     * Returns the recorded provisions of the given node, which are recorded by the
+     * parent context that binds the node if it is external.
+     */
+    private ProvisionStats getProvisionStats(InjectionProvider node) {
+        InjectionContext layer = layers.get(node);
+        return (layer == null ? context : layer).getProvisionStats(node);
+    }
+    
+    private static void sortByType(List<InjectionProvider> providers) {
+        Collections.sort(providers, new Comparator<InjectionProvider>() {
+            @Override
+            public int compare(InjectionProvider p1, InjectionProvider p2) {
+                return p1.getType().toString().compareTo(p2.getType().toString());
+            }
+        });
+    }
+
+    /**
+     * Write the graph to the given output in the given format.
+     *
+     * @param out the output to write to
+     * @param format the format of the graph
+     * @throws IOException if the output cannot be written
+     */
+    void export(Appendable out, GraphFormat format) throws IOException {
+        switch (format) {
+            case DOT:
+                exportDot(out);
+                break;
+            case JSON:
+                exportJson(out);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported format " + format);
+        }
+    }
+
+    private void exportDot(Appendable out) throws IOException {
+        out.append("digraph injector {\n");
+        out.append("  node [shape=box];\n");
+        for (InjectionProvider node : nodes) {
+            StringBuilder label = new StringBuilder();
+            label.append(node.getType()).append('\n');
+            label.append(InjectionContext.getKind(node));
+            Annotation scope = InjectionContext.getScope(node);
+            if (scope != null) {
+                label.append(' ').append(scope.annotationType().getName());
+            }
+            for (InjectionRequest request : bindings.get(node)) {
+                label.append("\nbound to ").append(describe(request));
+            }
+            if (layers.containsKey(node)) {
+                label.append("\nbound by a parent injector");
+            }
+            ProvisionStats stats = getProvisionStats(node);
+            if (stats != null) {
+                label.append("\nprovisions: ").append(stats.getCount())
+                     .append(", total: ").append(stats.getTotalNanos()).append(" ns");
+                if (scope != null) {
+                    label.append("\nscope hits: ").append(stats.getScopeHits())
+                         .append(", misses: ").append(stats.getScopeMisses())
+                         .append(", evictions: ").append(stats.getScopeEvictions());
+                }
+            }
+            out.append("  n").append(String.valueOf(ids.get(node)))
+               .append(" [label=").append(dotString(label.toString()));
+            if (layers.containsKey(node)) {
+                out.append(", style=dotted");
+            }
+            out.append("];\n");
+        }
+        for (InjectionProvider node : nodes) {
+            for (InjectionPoint point : points.get(node)) {
+                Integer target = ids.get(point.getProvider());
+                if (target == null) {
+                    continue;
+                }
+                out.append("  n").append(String.valueOf(ids.get(node)))
+                   .append(" -> n").append(String.valueOf(target))
+                   .append(" [label=").append(dotString(point.getName()));
+                if (point.isDeferred()) {
+                    out.append(", style=dashed");
+                }
+                out.append("];\n");
+            }
+        }
+        out.append("}\n");
+    }
+
+    private void exportJson(Appendable out) throws IOException {
+        out.append("{\n  \"nodes\": [");
+        boolean first = true;
+        for (InjectionProvider node : nodes) {
+            out.append(first ? "\n" : ",\n");
+            first = false;
+            Annotation scope = InjectionContext.getScope(node);
+            out.append("    {\"id\": ").append(String.valueOf(ids.get(node)))
+               .append(", \"type\": ").append(jsonString(node.getType().toString()))
+               .append(", \"kind\": ").append(jsonString(InjectionContext.getKind(node)))
+               .append(", \"scope\": ").append(jsonString(
+                       scope == null ? null : scope.annotationType().getName()))
+               .append(", \"bindings\": [");
+            boolean firstBinding = true;
+            for (InjectionRequest request : bindings.get(node)) {
+                out.append(firstBinding ? "" : ", ");
+                firstBinding = false;
+                out.append("{\"type\": ").append(jsonString(request.getType().toString()))
+                   .append(", \"qualifier\": ").append(jsonString(
+                           toString(request.getQualifier())))
+                   .append("}");
+            }
+            out.append("]");
+            if (layers.containsKey(node)) {
+                out.append(", \"external\": true");
+            }
+            ProvisionStats stats = getProvisionStats(node);
+            if (stats != null) {
+                out.append(", \"provisions\": ").append(String.valueOf(stats.getCount()))
+                   .append(", \"totalNanos\": ")
+                   .append(String.valueOf(stats.getTotalNanos()))
+                   .append(", \"scopeHits\": ")
+                   .append(String.valueOf(stats.getScopeHits()))
+                   .append(", \"scopeMisses\": ")
+                   .append(String.valueOf(stats.getScopeMisses()))
+                   .append(", \"scopeEvictions\": ")
+                   .append(String.valueOf(stats.getScopeEvictions()));
+            }
+            out.append("}");
+        }
+        out.append("\n  ],\n  \"edges\": [");
+        first = true;
+        for (InjectionProvider node : nodes) {
+            for (InjectionPoint point : points.get(node)) {
+                Integer target = ids.get(point.getProvider());
+                if (target == null) {
+                    continue;
+                }
+                out.append(first ? "\n" : ",\n");
+                first = false;
+                out.append("    {\"from\": ").append(String.valueOf(ids.get(node)))
+                   .append(", \"to\": ").append(String.valueOf(target))
+                   .append(", \"injectionPoint\": ").append(jsonString(point.getName()))
+                   .append(", \"type\": ").append(jsonString(point.getType().toString()))
+                   .append(", \"qualifier\": ").append(jsonString(
+                           toString(point.getQualifier())))
+                   .append(", \"deferred\": ").append(String.valueOf(point.isDeferred()))
+                   .append("}");
+            }
+        }
+        out.append("\n  ]\n}\n");
+    }
+
+    private static String describe(InjectionRequest request) {
+        if (request.getQualifier() == null) {
+            return request.getType().toString();
+        }
+        return request.getType() + " " + request.getQualifier();
+    }
+
+    private static String toString(Annotation annotation) {
+        return annotation == null ? null : annotation.toString();
+    }
+
+    private static String dotString(String value) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c == '\n') {
+                sb.append("\\l");
+            } else {
+                sb.append(c);
+            }
+        }
+        // left justify the last line as well
+        return sb.append("\\l\"").toString();
+    }
+
+    private static String jsonString(String value) {
+        if (value == null) {
+            return "null";
+        }
+
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+}
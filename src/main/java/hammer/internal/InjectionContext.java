@@ -1,26 +1,53 @@
 package hammer.internal;
 
 import java.lang.annotation.Annotation;
+import java.lang.ref.SoftReference;
 import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
+import hammer.api.EvictionListener;
 import hammer.api.InjectionType;
+import hammer.api.InjectionException;
 import hammer.api.Injector;
-import hammer.api.Loader;
+import hammer.api.Key;
+import hammer.api.Lazy;
 import hammer.api.Multiton;
+import hammer.api.Poolable;
+import hammer.api.Pooled;
+import hammer.api.ProvisionListener;
+import hammer.api.ProvisionTracer;
+import hammer.api.Refreshable;
+import hammer.api.SoftScoped;
+import hammer.api.ThreadScoped;
 import hammer.api.TypeToken;
 import javax.inject.Provider;
 import javax.inject.Qualifier;
@@ -31,44 +58,928 @@ import javax.inject.Scope;
  */
 class InjectionContext {
 
+    private static final int DEFAULT_POOL_CAPACITY = 16;
+    // the number of cached key handles after which misses are no longer cached
+    private static final int MAX_CACHED_KEY_MISSES = 1024;
+
     private final Map<InjectionRequest, InjectionProvider> injectionRequests;
+    // handles for unqualified class requests, shared by contexts with these requests
+    private final ConcurrentMap<Class<?>, ResolvedHandle<?>> classHandles;
+    // handles for keys, including a bounded number of unbound keys, shared like the
+    // class handles
+    private final ConcurrentMap<Key<?>, ResolvedHandle<?>> keyHandles;
+    // handles for the injected fields and parameters of each injected member, shared
+    // like the class handles
+    private final ConcurrentMap<AccessibleObject, ResolvedHandle<?>[]> memberHandles;
     private final Set<InjectionType> injectionTypes;
-    private final Set<Annotation> activeScopes;
-    private final Set<Annotation> localScopes;
+    // the ids of the scopes used by this context and the contexts derived from it
+    private final ScopeIds scopeIds;
+    // the context that holds the instances of each active scope indexed by the id of
+    // the scope, where a null or missing entry means that the scope is not active
+    private final InjectionContext[] scopeOwners;
     
     private final Map<TypeToken<?>, InjectionProvider> injectionProviders;
+    // the thread scoped providers of this context, shared like the bindings
+    private final List<ThreadScopedInjectionProvider> threadScopedProviders;
     private final Map<TypeToken<?>, Introspector.InjectionProfile> injectionProfiles;
     private final Introspector.AccessProfile accessProfile;
+    
+    // futures for the singletons instantiated when this context was created
+    private final Map<InjectionProvider, CompletableFuture<Object>> singletonFutures;
+    // the executor used to complete injected futures or null if there is none
+    private final Executor asyncExecutor;
+    // the listener bound to each provider or null if there is none
+    private final ProvisionListener listener;
+    // the stats of each instrumented provider or null if none is instrumented
+    private final Map<InjectionProvider, ProvisionStats> recorders;
+    // the tracer of outermost provisions or null if tracing is disabled
+    private final ProvisionTracer tracer;
+    // the trace of the provision in progress on each thread if tracing is enabled
+    private final ThreadLocal<ProvisionTraceImpl> currentTrace;
+    // true if provisions are either recorded or traced
+    private final boolean instrumented;
 
-    // the parent context or null if this is the top level        
-    private final InjectionContext parentContext;
-    // thread local stack to detect injection loops
-    private final ThreadLocal<Set<InjectionProvider>> loopDetector
-            = new ThreadLocal<Set<InjectionProvider>>() {
-        @Override
-        protected Set<InjectionProvider> initialValue() {
-            return new LinkedHashSet<>();
+    // the context that provides requests not bound in this context or null if none
+    private final InjectionContext fallbackContext;
+    // the context that provides requests delegated to the fallback context, which is
+    // created on first use since it depends on the scopes this context owns
+    private volatile InjectionContext fallbackView;
+    // thread local stack to detect injection loops, shared by derived contexts
+    private final ThreadLocal<ProvisionStack> loopDetector;
+    // the instances of the scopes owned by this context keyed by their providers,
+    // which is created when the first instance is stored so entering a scope is cheap
+    private volatile ConcurrentMap<InjectionProvider, Object> scopedInstances;
+    // the id of the scope entered by this context or -1 if it entered no scope
+    private final int enteredScopeId;
+    // the maximum number of idle instances pooled for each pooled type
+    private final int poolCapacity;
+    // the age in nanoseconds after which refreshable instances are rebuilt or 0
+    private final long refreshIntervalNanos;
+    // the bounds of the instances per scope of the bounded multiton types
+    private final Map<Class<?>, ContainerImpl.MultitonCapacity> multitonCapacities;
+
+    InjectionContext(ContainerImpl.Result result) {
+        this.fallbackContext = null;
+        this.loopDetector = new ThreadLocal<ProvisionStack>() {
+            @Override
+            protected ProvisionStack initialValue() {
+                return new ProvisionStack();
+            }
+        };
+        this.enteredScopeId = -1;
+        this.poolCapacity = result.getPoolCapacity() != 0
+                            ? result.getPoolCapacity() : DEFAULT_POOL_CAPACITY;
+        this.refreshIntervalNanos = result.getRefreshIntervalNanos();
+        this.multitonCapacities = new HashMap<>(result.getMultitonCapacities());
+
+        this.injectionProfiles = new ConcurrentHashMap<>(result.getInjectionProfiles());
+
+        this.injectionTypes = result.getInjectionTypes();
+        this.accessProfile = Introspector.getAccessProfile(injectionTypes);
+        this.scopeIds = new ScopeIds();
+        this.scopeOwners = ownScopes(new InjectionContext[0], result.getActiveScopes());
+        
+        this.injectionProviders = new HashMap<>();
+        this.injectionRequests = new HashMap<>();
+        this.classHandles = new ConcurrentHashMap<>();
+        this.keyHandles = new ConcurrentHashMap<>();
+        this.memberHandles = new ConcurrentHashMap<>();
+        bindAll(result);
+        this.threadScopedProviders = getThreadScopedProviders();
+
+        // bind each provider to the provision listener if one is configured
+        this.listener = result.getProvisionListener();
+        this.recorders = getRecorders(listener);
+        this.tracer = result.getProvisionTracer();
+        this.currentTrace = tracer == null ? null : new ThreadLocal<ProvisionTraceImpl>();
+        this.instrumented = recorders != null || tracer != null;
+
+        // instantiate the singletons if requested
+        this.asyncExecutor = result.getEagerExecutor();
+        SingletonInitializer initializer = getSingletonInitializer(result);
+        this.singletonFutures = initializer == null
+                ? Collections.<InjectionProvider, CompletableFuture<Object>>emptyMap()
+                : initializer.getFutures();
+        startSingletons(initializer, result);
+        
+        // inject the requested statics
+        for (Class<?> clss : result.getStaticInjectionsEnabled()) {
+            injectStatics(clss);
+        }
+    }
+
+    /**
+     * Creates a child context that layers the bindings of the given container over the
+     * bindings of the given parent.  Requests that are not bound by the child are
+     * provided by the parent, so the parent's bindings, scoped instances and injection
+     * profiles are shared rather than copied.  Every scope active in the parent is
+     * local to the child, so scoped bindings of the child are instantiated and held by
+     * the child.
+     */
+    InjectionContext(InjectionContext parent, ContainerImpl.Result result) {
+        if (result.isInjectionTypesReset()) {
+            throw new IllegalArgumentException(
+                    "Child injectors inherit the injection types of their parent");
+        }
+        
+        this.fallbackContext = parent;
+        this.loopDetector = parent.loopDetector;
+        this.enteredScopeId = -1;
+        this.poolCapacity = result.getPoolCapacity() != 0
+                            ? result.getPoolCapacity() : parent.poolCapacity;
+        this.refreshIntervalNanos = result.getRefreshIntervalNanos() != 0
+                ? result.getRefreshIntervalNanos() : parent.refreshIntervalNanos;
+        if (result.getMultitonCapacities().isEmpty()) {
+            this.multitonCapacities = parent.multitonCapacities;
+        } else {
+            this.multitonCapacities = new HashMap<>(parent.multitonCapacities);
+            this.multitonCapacities.putAll(result.getMultitonCapacities());
+        }
+
+        this.injectionProfiles = parent.injectionProfiles;
+        this.injectionTypes = parent.injectionTypes;
+        this.accessProfile = parent.accessProfile;
+        this.scopeIds = parent.scopeIds;
+        this.scopeOwners = ownScopes(parent.scopeOwners, result.getActiveScopes());
+        
+        this.injectionProviders = new HashMap<>();
+        this.injectionRequests = new HashMap<>();
+        this.classHandles = new ConcurrentHashMap<>();
+        this.keyHandles = new ConcurrentHashMap<>();
+        this.memberHandles = new ConcurrentHashMap<>();
+        bindAll(result);
+        this.threadScopedProviders = getThreadScopedProviders();
+
+        // the child inherits the instrumentation of the parent unless it has its own
+        this.listener = result.getProvisionListener() != null
+                        ? result.getProvisionListener() : parent.listener;
+        this.recorders = getRecorders(listener);
+        if (result.getProvisionTracer() != null) {
+            this.tracer = result.getProvisionTracer();
+            this.currentTrace = new ThreadLocal<>();
+        } else {
+            this.tracer = parent.tracer;
+            this.currentTrace = parent.currentTrace;
+        }
+        this.instrumented = recorders != null || tracer != null;
+
+        this.asyncExecutor = result.getEagerExecutor() != null
+                             ? result.getEagerExecutor() : parent.asyncExecutor;
+        SingletonInitializer initializer = getSingletonInitializer(result);
+        this.singletonFutures = initializer == null
+                ? Collections.<InjectionProvider, CompletableFuture<Object>>emptyMap()
+                : initializer.getFutures();
+        startSingletons(initializer, result);
+        
+        for (Class<?> clss : result.getStaticInjectionsEnabled()) {
+            injectStatics(clss);
+        }
+    }
+
+    /**
+     * Creates a context in which the given scope is entered.  Everything but the
+     * owners of the active scopes is shared with the parent, and those are a copy of
+     * the parent's owners with this context as the owner of the given scope.
+     */
+    InjectionContext(InjectionContext parent, Class<? extends Annotation> scope) {
+        this(parent, parent.scopeIds.getId(scope));
+        this.scopeOwners[enteredScopeId] = this;
+    }
+    
+    private InjectionContext(InjectionContext parent, int scopeId) {
+        this(parent, Arrays.copyOf(parent.scopeOwners,
+                                   Math.max(parent.scopeOwners.length, scopeId + 1)),
+             scopeId);
+    }
+
+    /**
+     * Creates a context that shares everything with the parent but the owners of the
+     * active scopes.
+     */
+    private InjectionContext(InjectionContext parent, InjectionContext[] scopeOwners,
+                             int enteredScopeId) {
+        this.fallbackContext = parent.fallbackContext;
+        this.loopDetector = parent.loopDetector;
+        this.poolCapacity = parent.poolCapacity;
+        this.refreshIntervalNanos = parent.refreshIntervalNanos;
+        this.multitonCapacities = parent.multitonCapacities;
+        this.scopeIds = parent.scopeIds;
+        this.enteredScopeId = enteredScopeId;
+        this.scopeOwners = scopeOwners;
+
+        this.injectionProfiles = parent.injectionProfiles;
+        this.injectionTypes = parent.injectionTypes;
+        this.accessProfile = parent.accessProfile;
+        this.injectionProviders = parent.injectionProviders;
+        this.threadScopedProviders = parent.threadScopedProviders;
+        this.injectionRequests = parent.injectionRequests;
+        this.classHandles = parent.classHandles;
+        this.keyHandles = parent.keyHandles;
+        this.memberHandles = parent.memberHandles;
+        this.singletonFutures = Collections.emptyMap();
+        this.asyncExecutor = parent.asyncExecutor;
+        this.listener = parent.listener;
+        this.recorders = parent.recorders;
+        this.tracer = parent.tracer;
+        this.currentTrace = parent.currentTrace;
+        this.instrumented = parent.instrumented;
+    }
+    
+    /** === Package-private API methods === **/
+    
+    /**
+     * Returns the set of {@link InjectionType}s that this {@code InjectionContext}
+     * performs.
+     * 
+     * @return set of supported {@link InjectionType}s
+     */
+    Set<InjectionType> getInjectionTypes() {
+        return injectionTypes;
+    }
+
+    /**
+     * Returns the set of scopes that are active in this {@code InjectionContext}.
+     * 
+     * @return active scopes in this injection context
+     */
+    Set<Annotation> getActiveScopes() {
+        Set<Annotation> scopes = new HashSet<>();
+        for (int id = 0; id < scopeOwners.length; id++) {
+            if (scopeOwners[id] != null) {
+                scopes.add(scopeIds.getScope(id));
+            }
+        }
+        return scopes;
+    }
+    
+    /**
+     * Performs an actual injection request, instantiating a new instance or returning a
+     * scoped or pre-instantiated instance depending on the configuration of the injector.
+     *
+     * @param <T>       the type of the injected objects
+     * @param type      the type of the injection request
+     * @param qualifier the qualifier associated with the injection request or
+     *                  {@code null} if there is no qualifier
+     * @return an instantiated object that satisfies the injection request
+     */
+    <T> T injectionRequest(TypeToken<T> type, Annotation qualifier) {
+        // special case requests for providers
+        if (Objects.equals(type.getRawClass(), Provider.class)
+            && type.getType() instanceof ParameterizedType) {
+            TypeToken<?> providedType = TypeToken.forType(
+                    ((ParameterizedType) type.getType()).getActualTypeArguments()[0]);
+
+            return (T) providerRequest(providedType, qualifier);
+        }
+        
+        // special case requests for lazy instances
+        if (Objects.equals(type.getRawClass(), Lazy.class)
+            && type.getType() instanceof ParameterizedType) {
+            TypeToken<?> lazyType = TypeToken.forType(
+                    ((ParameterizedType) type.getType()).getActualTypeArguments()[0]);
+
+            return (T) lazyRequest(lazyType, qualifier);
+        }
+        
+        // requests for futures and optional instances are resolved to handles, which
+        // are bound to the future or optional type itself if it is bound explicitly
+        if ((Objects.equals(type.getRawClass(), CompletableFuture.class)
+             || Objects.equals(type.getRawClass(), Optional.class))
+            && type.getType() instanceof ParameterizedType) {
+            return handleRequest(findHandle(Key.forType(type, qualifier)));
         }
-    };
 
-    InjectionContext(Iterable<? extends Loader> loaders) {
-        this.parentContext = null;
+        InjectionRequest ir = new InjectionRequest(type, qualifier);
+
+        InjectionProvider provider = injectionRequests.get(ir);
+        if (provider == null) {
+            if (fallbackContext != null) {
+                return getFallbackView().injectionRequest(type, qualifier);
+            }
+            throw new IllegalArgumentException(
+                    "Injector cannot inject a request for type " + type
+                    + " and qualifier " + qualifier);
+        }
+        
+        return (T) safeProvide(provider, ir);
+    }
 
-        this.injectionProfiles = new HashMap<>();
+    /**
+     * Performs an unqualified injection request for the given class.  The class is
+     * resolved to a handle on its first request, so later requests look the class up
+     * by identity rather than hashing a {@code TypeToken} and allocating a request.
+     *
+     * @param <T>  the type of the injected object
+     * @param type the class of the injection request
+     * @return an instantiated object that satisfies the injection request
+     */
+    <T> T classRequest(Class<T> type) {
+        return handleRequest(findHandle(type));
+    }
+
+    /**
+     * Returns an {@code Optional} with the instance that satisfies the given handle, or
+     * an empty {@code Optional} if its key is not bound.  Misses are cached by the
+     * handle and never construct an exception.
+     *
+     * @param <T>    the type of the optional object
+     * @param handle a handle found by this context
+     * @return an {@code Optional} with the instance if the key is bound
+     */
+    <T> Optional<T> optionalRequest(ResolvedHandle<T> handle) {
+        if (!handle.isBound()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(handleRequest(handle));
+    }
+
+    /**
+     * Returns a {@code Provider} that will provide instances for injection requests of
+     * the given type and qualifier.
+     *
+     * @param <T>       the type of the objects provided by the provider
+     * @param type      represents the type of the injection request
+     * @param qualifier the qualifier annotation for the injection request (or
+     *                  {@code null} if there is no qualifier
+     * @return a {@code Provider} that is configure to provide instances for the requests
+     */
+    <T> Provider<T> providerRequest(final TypeToken<T> type,
+                                    final Annotation qualifier) {
+        return new Provider<T>() {
+            @Override
+            public T get() {
+                return injectionRequest(type, qualifier);
+            }
+        };
+    }
+    
+    /**
+     * Returns a {@link Lazy} that will perform the injection request of the given type
+     * and qualifier on its first use and return the same instance thereafter.
+     *
+     * @param <T>       the type of the object provided by the lazy
+     * @param type      represents the type of the injection request
+     * @param qualifier the qualifier annotation for the injection request (or
+     *                  {@code null} if there is no qualifier
+     * @return a {@link Lazy} that is configured to provide the instance for the request
+     */
+    <T> Lazy<T> lazyRequest(TypeToken<T> type, Annotation qualifier) {
+        return new MemoizedLazy<>(providerRequest(type, qualifier));
+    }
+    
+    /**
+     * Returns a {@code Provider} that will provide instances for the given handle.
+     *
+     * @param <T>    the type of the objects provided by the provider
+     * @param handle a handle found by this context
+     * @return a {@code Provider} that is configured to provide instances for the handle
+     */
+    <T> Provider<T> providerRequest(final ResolvedHandle<T> handle) {
+        return new Provider<T>() {
+            @Override
+            public T get() {
+                return handleRequest(handle);
+            }
+        };
+    }
+    
+    /**
+     * Returns a {@code CompletableFuture} that will be completed with the instance that
+     * satisfies the injection request of the given type and qualifier.  If the request
+     * is satisfied by a singleton that is being instantiated in the background, the
+     * returned future completes when that instantiation does.  Otherwise, the instance
+     * is provided using the executor configured for background instantiation, or
+     * immediately in the calling thread if there is no such executor.
+     *
+     * @param <T>       the type of the object that completes the future
+     * @param type      represents the type of the injection request
+     * @param qualifier the qualifier annotation for the injection request (or
+     *                  {@code null} if there is no qualifier
+     * @return a {@code CompletableFuture} for the requested instance
+     */
+    <T> CompletableFuture<T> futureRequest(final TypeToken<T> type,
+                                           final Annotation qualifier) {
+        InjectionRequest ir = new InjectionRequest(type, qualifier);
 
-        ContainerImpl container = new ContainerImpl();
-        for (Loader loader : loaders) {
-            loader.load(container);
+        InjectionProvider provider = injectionRequests.get(ir);
+        if (provider == null) {
+            if (fallbackContext != null) {
+                return getFallbackView().futureRequest(type, qualifier);
+            }
+            throw new IllegalArgumentException(
+                    "Injector cannot inject a request for type " + type
+                    + " and qualifier " + qualifier);
+        }
+        
+        CompletableFuture<Object> singleton = getSingletonFuture(provider);
+        if (singleton != null) {
+            // hand out a dependent future so callers cannot complete the shared one
+            return (CompletableFuture<T>) singleton.thenApply(Function.identity());
+        }
+        
+        Supplier<T> supplier = new Supplier<T>() {
+            @Override
+            public T get() {
+                return injectionRequest(type, qualifier);
+            }
+        };
+        if (asyncExecutor != null) {
+            return CompletableFuture.supplyAsync(supplier, asyncExecutor);
+        }
+        
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            future.complete(supplier.get());
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Resolves the given key to the provider that satisfies it in this context or in
+     * the contexts this context falls back to.
+     *
+     * @param <T> the type of the objects identified by the key
+     * @param key the key to resolve
+     * @return a handle for the resolved key
+     * @throws IllegalArgumentException if the key cannot be satisfied
+     */
+    <T> ResolvedHandle<T> resolveHandle(Key<T> key) {
+        ResolvedHandle<T> handle = findHandle(key);
+        if (!handle.isBound()) {
+            throw new IllegalArgumentException(
+                    "Injector cannot inject a request for type " + key.getType()
+                    + " and qualifier " + key.getQualifier());
+        }
+        return handle;
+    }
+
+    /**
+     * Returns the handle for the given key, which records whether the key is bound.
+     * Handles are cached for the bindings of this context, so repeated lookups of the
+     * same key do not search the bindings again.  Misses are only cached until the
+     * cache holds {@value #MAX_CACHED_KEY_MISSES} handles, since keys are supplied by
+     * callers and probing with arbitrary qualifiers must not grow the cache forever.
+     *
+     * @param <T> the type of the objects identified by the key
+     * @param key the key to find
+     * @return a bound or unbound handle for the key
+     */
+    <T> ResolvedHandle<T> findHandle(Key<T> key) {
+        ResolvedHandle<T> handle = (ResolvedHandle<T>) keyHandles.get(key);
+        if (handle == null) {
+            handle = createHandle(key);
+            if (!isMiss(handle) || keyHandles.size() < MAX_CACHED_KEY_MISSES) {
+                keyHandles.putIfAbsent(key, handle);
+            }
+        }
+        return handle;
+    }
+
+    /**
+     * Returns {@code true} if the given handle, or the handle it wraps, is not bound.
+     */
+    private static boolean isMiss(ResolvedHandle<?> handle) {
+        return !handle.isBound()
+               || (handle.getWrapped() != null && !handle.getWrapped().isBound());
+    }
+
+    /**
+     * Returns the handle for the unqualified class, per {@link #findHandle(Key)},
+     * looking the class up by identity.  Misses are always cached since the number
+     * of classes is bounded.
+     *
+     * @param <T> the type of the objects identified by the class
+     * @param type the class to find
+     * @return a bound or unbound handle for the class
+     */
+    <T> ResolvedHandle<T> findHandle(Class<T> type) {
+        ResolvedHandle<T> handle = (ResolvedHandle<T>) classHandles.get(type);
+        if (handle == null) {
+            handle = createHandle(Key.forClass(type));
+            classHandles.putIfAbsent(type, handle);
+        }
+        return handle;
+    }
+
+    /**
+     * Creates the handle for the given key by searching the bindings of this context
+     * and of the contexts it falls back to.  Keys for {@code Provider}s and
+     * {@link Lazy}s, as well as keys for {@code CompletableFuture}s and {@code Optional}s
+     * that are not bound explicitly, hold the handle of the key they wrap and are
+     * resolved as they are requested.  Optionals are always bound, while the other
+     * wrappers are only bound if the type they wrap is bound.
+     */
+    private <T> ResolvedHandle<T> createHandle(Key<T> key) {
+        TypeToken<T> type = key.getType();
+        InjectionRequest ir = new InjectionRequest(type, key.getQualifier());
+        if (type.getType() instanceof ParameterizedType
+            && (Objects.equals(type.getRawClass(), Provider.class)
+                || Objects.equals(type.getRawClass(), Lazy.class))) {
+            return createWrapperHandle(key, ir);
+        }
+
+        int depth = 0;
+        InjectionContext current = this;
+        InjectionProvider provider = injectionRequests.get(ir);
+        while (provider == null && current.fallbackContext != null) {
+            current = current.fallbackContext;
+            depth++;
+            provider = current.injectionRequests.get(ir);
+        }
+        
+        if (provider == null && type.getType() instanceof ParameterizedType
+            && (Objects.equals(type.getRawClass(), CompletableFuture.class)
+                || Objects.equals(type.getRawClass(), Optional.class))) {
+            return createWrapperHandle(key, ir);
+        }
+
+        return new ResolvedHandle<>(key, injectionRequests, ir, provider, depth,
+                                    provider != null, null);
+    }
+    
+    /**
+     * Creates the handle for a key whose parameterized type wraps another type, which
+     * holds the handle of the key for the wrapped type.
+     */
+    private <T> ResolvedHandle<T> createWrapperHandle(Key<T> key, InjectionRequest ir) {
+        Type wrappedType = ((ParameterizedType) key.getType().getType())
+                .getActualTypeArguments()[0];
+        ResolvedHandle<?> wrapped = findHandle(Key.forType(
+                TypeToken.forType(wrappedType), key.getQualifier()));
+        boolean bound = Objects.equals(key.getType().getRawClass(), Optional.class)
+                        || wrapped.isBound();
+        return new ResolvedHandle<>(key, injectionRequests, ir, null, 0, bound, wrapped);
+    }
+
+    /**
+     * Performs the injection request for a resolved handle without looking up its
+     * key.  The handle must have been resolved by a context that shares the bindings
+     * of this context, i.e. this context or a context it was derived from by entering
+     * a scope.
+     *
+     * @param <T> the type of the injected object
+     * @param handle the resolved handle
+     * @return an instantiated object that satisfies the handle
+     * @throws IllegalArgumentException if the handle was resolved with other bindings
+     */
+    <T> T handleRequest(ResolvedHandle<T> handle) {
+        if (handle.getBindings() != injectionRequests) {
+            throw new IllegalArgumentException(
+                    "Handle " + handle.getKey() + " was resolved by a different injector");
+        }
+
+        InjectionProvider provider = handle.getProvider();
+        if (provider != null) {
+            return (T) getLayer(handle.getDepth()).safeProvide(provider,
+                                                               handle.getRequest());
+        }
+        
+        ResolvedHandle<?> wrapped = handle.getWrapped();
+        if (wrapped == null) {
+            // the key is not bound, so let the request fail as unbound requests do
+            Key<T> key = handle.getKey();
+            return injectionRequest(key.getType(), key.getQualifier());
+        }
+        
+        Class<?> wrapper = handle.getKey().getType().getRawClass();
+        if (Objects.equals(wrapper, Optional.class)) {
+            return (T) optionalRequest(wrapped);
+        }
+        if (Objects.equals(wrapper, Provider.class)) {
+            return (T) providerRequest(wrapped);
+        }
+        if (Objects.equals(wrapper, Lazy.class)) {
+            return (T) new MemoizedLazy<>(providerRequest(wrapped));
+        }
+        Key<?> wrappedKey = wrapped.getKey();
+        return (T) futureRequest(wrappedKey.getType(), wrappedKey.getQualifier());
+    }
+
+    /**
+     * Releases the thread scoped instances held for the calling thread by the owners
+     * of the thread scopes of this context and of the contexts it falls back to, per
+     * {@link Injector#releaseThreadScope()}.
+     */
+    void releaseThreadScope() {
+        InjectionException failure = null;
+        for (InjectionContext context = this; context != null;
+             context = context.getFallbackView()) {
+            for (ThreadScopedInjectionProvider scoped : context.threadScopedProviders) {
+                InjectionContext owner = context.getScopeOwner(scoped.scopeId);
+                Object instance = owner == null ? null : scoped.release(owner);
+                if (instance instanceof AutoCloseable) {
+                    try {
+                        ((AutoCloseable) instance).close();
+                    } catch (Exception e) {
+                        if (failure == null) {
+                            failure = new InjectionException(
+                                    "Failed to close thread scoped instances");
+                        }
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+        }
+        
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Rebuilds the instance of a refreshable binding in the background per
+     * {@link Injector#refresh(hammer.api.Key)}.
+     *
+     * @param <T> the type of the refreshed instance
+     * @param key the key of the refreshable binding
+     * @return a future completed with the rebuilt instance
+     * @throws IllegalArgumentException if the key is not bound to a refreshable type
+     */
+    <T> CompletableFuture<T> refresh(Key<T> key) {
+        ResolvedHandle<T> handle = resolveHandle(key);
+        if (!(handle.getProvider() instanceof RefreshableScopedInjectionProvider)) {
+            throw new IllegalArgumentException(
+                    "Key " + key + " is not bound to a refreshable type");
+        }
+        
+        return (CompletableFuture<T>) ((RefreshableScopedInjectionProvider)
+                handle.getProvider()).refresh(getLayer(handle.getDepth()));
+    }
+
+    /**
+     * Ends the scope entered by this context per {@link Injector#exitScope()}, returning
+     * its pooled instances to their pools and releasing its other scoped instances.
+     */
+    void exitScope() {
+        if (enteredScopeId < 0) {
+            throw new IllegalStateException("Injector did not enter a scope");
+        }
+        
+        ConcurrentMap<InjectionProvider, Object> instances = scopedInstances;
+        if (instances == null) {
+            return;
+        }
+        
+        InjectionException failure = null;
+        for (InjectionProvider provider : instances.keySet()) {
+            if (provider instanceof ThreadScopedInjectionProvider) {
+                // other threads drop their stale entries once the slot is collected
+                ((ThreadScopedInjectionProvider) provider).release(this);
+            } else if (provider instanceof PooledInjectionProvider) {
+                try {
+                    ((PooledInjectionProvider) provider).release(this);
+                } catch (RuntimeException e) {
+                    if (failure == null) {
+                        failure = new InjectionException(
+                                "Failed to reset pooled instances");
+                    }
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        instances.clear();
+        
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Injects members on the given object in this injection context per
+     * {@link Injector#injectMembers(java.lang.Object)}
+     * 
+     * @param target the target object to inject
+     */
+    final void injectMembers(Object target) {
+        Introspector.InjectionProfile profile = getInjectionProfile(
+                TypeToken.forClass(target.getClass()));
+
+        for (AccessibleObject element : profile.getInjectableMembers()) {
+            if (element instanceof Field) {
+                injectField((Field) element, target);
+            } else if (element instanceof Method) {
+                injectMethod((Method) element, target);
+            }
+        }
+    }
+
+    /**
+     * Injects static members on the given class in this injection context per
+     * {@link Injector#injectStatics(java.lang.Object)}
+     * 
+     * @param target the target class to inject
+     */
+    final void injectStatics(Class<?> targetClass) {
+        Introspector.InjectionProfile profile = getInjectionProfile(
+                TypeToken.forClass(targetClass));
+
+        for (AccessibleObject element : profile.getInjectableStatics()) {
+            if (element instanceof Field) {
+                injectField((Field) element, targetClass);
+            } else if (element instanceof Method) {
+                injectMethod((Method) element, targetClass);
+            }
+        }
+    }
+    
+    
+    
+    
+    /**
+     * Resolves the {@link InjectionPoint} of each injectable constructor parameter,
+     * field, and method parameter of the given type.  Requests for {@code Provider}s,
+     * {@link Lazy}s or {@code CompletableFuture}s are resolved as deferred injection
+     * points for the provided type.
+     * 
+     * @param type the implementation type
+     * @return the list of injection points of the given type
+     */
+    final List<InjectionPoint> resolveInjectionPoints(TypeToken<?> type) {
+        Introspector.InjectionProfile profile = getInjectionProfile(type);
+        
+        List<InjectionPoint> points = new ArrayList<>();
+        Constructor<?> ctr = profile.getInjectableConstructor();
+        addInjectionPoints(points, "constructor", ctr.getGenericParameterTypes(),
+                           ctr.getParameterAnnotations());
+        for (AccessibleObject element : profile.getInjectableMembers()) {
+            if (element instanceof Field) {
+                Field field = (Field) element;
+                addInjectionPoint(points, "field " + field.getName(),
+                                  field.getGenericType(),
+                                  findQualifier(field.getAnnotations()));
+            } else if (element instanceof Method) {
+                Method method = (Method) element;
+                addInjectionPoints(points, "method " + method.getName(),
+                                   method.getGenericParameterTypes(),
+                                   method.getParameterAnnotations());
+            }
+        }
+        return points;
+    }
+    
+    /**
+     * Returns the instance stored for the given provider in the scopes owned by this
+     * context, without creating the map of scoped instances.
+     *
+     * @param provider the scoped provider
+     * @return the stored instance or {@code null} if there is none
+     */
+    final Object getScopedInstance(InjectionProvider provider) {
+        ConcurrentMap<InjectionProvider, Object> instances = scopedInstances;
+        return instances == null ? null : instances.get(provider);
+    }
+    
+    /**
+     * Returns the instances of the scopes owned by this context keyed by their
+     * providers, creating the map on first use.
+     *
+     * @return the map of scoped instances
+     */
+    final ConcurrentMap<InjectionProvider, Object> getScopedInstances() {
+        ConcurrentMap<InjectionProvider, Object> instances = scopedInstances;
+        if (instances == null) {
+            synchronized (this) {
+                instances = scopedInstances;
+                if (instances == null) {
+                    instances = new ConcurrentHashMap<>();
+                    scopedInstances = instances;
+                }
+            }
+        }
+        return instances;
+    }
+
+    /**
+     * Provides an instance from the given provider, guarding against injection loops.
+     * 
+     * @param provider the provider to provide the instance
+     * @param ir the injection request being satisfied
+     * @return the provided instance
+     */
+    final Object safeProvide(InjectionProvider provider, InjectionRequest ir) {
+        ProvisionStack stack = loopDetector.get();
+        if (stack.contains(provider)) {
+            throw new IllegalStateException(
+                    "Loop detected while attempting to inject type " + ir.getType()
+                    + " and qualifier " + ir.getQualifier());
+        }
+
+        stack.push(provider);
+        try {
+            if (InjectionEvents.EVENTS.isProvisionEnabled()) {
+                InjectionEvents.ProvisionSpan span =
+                        InjectionEvents.EVENTS.beginProvision();
+                Object value = instrumentedProvide(provider, ir);
+                span.end(provider, ir, stack.size());
+                return value;
+            }
+            if (instrumented) {
+                return instrumentedProvide(provider, ir);
+            }
+            return provider.provide(ir, this);
+        } finally {
+            stack.pop();
+        }
+    }
+
+    /**
+     * Collects every provider known to this context.
+     * 
+     * @return the providers of this context
+     */
+    final Set<InjectionProvider> getProviders() {
+        Set<InjectionProvider> providers = new LinkedHashSet<>();
+        providers.addAll(injectionProviders.values());
+        providers.addAll(injectionRequests.values());
+        return providers;
+    }
+    
+    /**
+     * @return the context that provides requests not bound in this context or
+     *         {@code null} if there is none
+     */
+    final InjectionContext getFallbackContext() {
+        return fallbackContext;
+    }
+    
+    /**
+     * @return the provider bound to each injection request of this context
+     */
+    final Map<InjectionRequest, InjectionProvider> getInjectionRequests() {
+        return Collections.unmodifiableMap(injectionRequests);
+    }
+    
+    /**
+     * Returns the recorded provisions of the given provider.
+     * 
+     * @param provider the provider
+     * @return the provision statistics or {@code null} if the provider is not
+     *         instrumented
+     */
+    final ProvisionStats getProvisionStats(InjectionProvider provider) {
+        return recorders == null ? null : recorders.get(provider);
+    }
+    
+    /**
+     * Describes the kind of the given provider.
+     * 
+     * @param provider the provider
+     * @return one of {@code instance}, {@code unscoped}, {@code singleton},
+     *         {@code multiton}, {@code thread}, {@code pooled},
+     *         {@code refreshable} or {@code soft}
+     */
+    static String getKind(InjectionProvider provider) {
+        if (provider instanceof InstanceInjectionProvider) {
+            return "instance";
+        } else if (provider instanceof SingletonScopedInjectionProvider) {
+            return "singleton";
+        } else if (provider instanceof MultitonScopedInjectionProvider) {
+            return "multiton";
+        } else if (provider instanceof ThreadScopedInjectionProvider) {
+            return "thread";
+        } else if (provider instanceof PooledInjectionProvider) {
+            return "pooled";
+        } else if (provider instanceof RefreshableScopedInjectionProvider) {
+            return "refreshable";
+        } else if (provider instanceof SoftScopedInjectionProvider) {
+            return "soft";
+        }
+        return "unscoped";
+    }
+    
+    /**
+     * Returns the scope of the given provider.
+     * 
+     * @param provider the provider
+     * @return the scope annotation or {@code null} if the provider is not scoped
+     */
+    static Annotation getScope(InjectionProvider provider) {
+        if (provider instanceof SingletonScopedInjectionProvider) {
+            return ((SingletonScopedInjectionProvider) provider).scope;
+        } else if (provider instanceof MultitonScopedInjectionProvider) {
+            return ((MultitonScopedInjectionProvider) provider).scope;
+        } else if (provider instanceof ThreadScopedInjectionProvider) {
+            return ((ThreadScopedInjectionProvider) provider).scope;
+        } else if (provider instanceof PooledInjectionProvider) {
+            return ((PooledInjectionProvider) provider).scope;
+        } else if (provider instanceof RefreshableScopedInjectionProvider) {
+            return ((RefreshableScopedInjectionProvider) provider).scope;
+        } else if (provider instanceof SoftScopedInjectionProvider) {
+            return ((SoftScopedInjectionProvider) provider).scope;
         }
-        ContainerImpl.Result result = container.unload();
+        return null;
+    }
 
-        this.injectionTypes = result.getInjectionTypes();
-        this.accessProfile = Introspector.getAccessProfile(injectionTypes);
-        this.activeScopes = result.getActiveScopes();
-        this.localScopes = new HashSet<>(activeScopes);
-        
-        this.injectionProviders = new HashMap<>();
-        this.injectionRequests = new HashMap<>();
+    /** === Private utility methods === **/
+    
+    /**
+     * Creates a provider for each binding of the given container and binds it to the
+     * injection requests of the binding.
+     */
+    private void bindAll(ContainerImpl.Result result) {
+        InjectionEvents.Span validation = InjectionEvents.EVENTS.beginValidation(result);
 
         // for each strictbinding, create injectionprovider and associate
         // with each injectionrequest
@@ -105,7 +1016,10 @@ class InjectionContext {
                 bindInjectionRequest(request,
                                      getCollectionInjectionProvider(binding, li));
             }
-            li.add(getInjectionProvider(binding));
+            li.add(binding.getPriority(), getInjectionProvider(binding));
+        }
+        for (ListInstantiator li : listInstantiators.values()) {
+            li.order();
         }
         
         // build injectionproviders for set bindings
@@ -121,164 +1035,275 @@ class InjectionContext {
             }
             si.add(getInjectionProvider(binding));
         }
-
-        // inject the requested statics
-        for (Class<?> clss : result.getStaticInjectionsEnabled()) {
-            injectStatics(clss);
-        }
+        validation.end();
     }
-
-    InjectionContext(InjectionContext parent, Annotation scope) {
-        this.parentContext = parent;
-        this.localScopes = new HashSet<>();
-        this.localScopes.add(scope);
-        this.activeScopes = new HashSet<>(parent.getActiveScopes());
-        this.activeScopes.add(scope);
-
-        this.injectionProfiles = parent.injectionProfiles;
-        this.injectionTypes = parent.injectionTypes;
-        this.accessProfile = parent.accessProfile;
-        this.injectionProviders = parent.injectionProviders;
-        this.injectionRequests = parent.injectionRequests;
+    
+    /**
+     * Collects the thread scoped providers of this context, so that releasing the
+     * thread scopes does not search every provider.
+     */
+    private List<ThreadScopedInjectionProvider> getThreadScopedProviders() {
+        List<ThreadScopedInjectionProvider> providers = new ArrayList<>();
+        for (InjectionProvider provider : getProviders()) {
+            if (provider instanceof ThreadScopedInjectionProvider) {
+                providers.add((ThreadScopedInjectionProvider) provider);
+            }
+        }
+        return providers.isEmpty()
+               ? Collections.<ThreadScopedInjectionProvider>emptyList() : providers;
     }
     
-    /** === Package-private API methods === **/
+    /**
+     * Returns the initializer of the singletons of this context or {@code null} if the
+     * given container did not request them to be instantiated eagerly.
+     */
+    private SingletonInitializer getSingletonInitializer(ContainerImpl.Result result) {
+        if (result.getEagerExecutor() == null) {
+            return null;
+        }
+        return new SingletonInitializer(
+                this, getEagerSingletons(), result.getEagerExecutor(),
+                result.getEagerListener(), result.isEagerBlocking());
+    }
     
     /**
-     * Returns the set of {@link InjectionType}s that this {@code InjectionContext}
-     * performs.
-     * 
-     * @return set of supported {@link InjectionType}s
+     * Starts the given initializer if there is one, waiting for the singletons to be
+     * instantiated if requested.
      */
-    Set<InjectionType> getInjectionTypes() {
-        return injectionTypes;
+    private void startSingletons(SingletonInitializer initializer,
+                                 ContainerImpl.Result result) {
+        if (initializer != null) {
+            initializer.start();
+            if (result.isEagerBlocking()) {
+                initializer.await();
+            }
+        }
     }
-
+    
     /**
-     * Returns the set of scopes that are active in this {@code InjectionContext}.
+     * Returns the context that holds the instances of the scope with the given id.
      * 
-     * @return active scopes in this injection context
+     * @param scopeId the id of the scope
+     * @return the owning context or {@code null} if the scope is not active
      */
-    Set<Annotation> getActiveScopes() {
-        return activeScopes;
+    private InjectionContext getScopeOwner(int scopeId) {
+        return scopeId < scopeOwners.length ? scopeOwners[scopeId] : null;
     }
     
     /**
-     * Performs an actual injection request, instantiating a new instance or returning a
-     * scoped or pre-instantiated instance depending on the configuration of the injector.
+     * Returns the context through which requests that this context does not bind are
+     * provided by its fallback context.  This is the fallback context itself unless
+     * this context owns scopes that are not active in the fallback context, such as a
+     * scope entered on a child injector.  In that case, it is a view of the fallback
+     * context that also uses the owners of those scopes, so that scoped bindings of
+     * the fallback context can be provided in scopes entered on its children.
      *
-     * @param <T>       the type of the injected objects
-     * @param type      the type of the injection request
-     * @param qualifier the qualifier associated with the injection request or
-     *                  {@code null} if there is no qualifier
-     * @return an instantiated object that satisfies the injection request
+     * @return the context that provides delegated requests or {@code null} if this
+     *         context has no fallback context
      */
-    <T> T injectionRequest(TypeToken<T> type, Annotation qualifier) {
-        // special case requests for providers
-        if (Objects.equals(type.getRawClass(), Provider.class)
-            && type.getType() instanceof ParameterizedType) {
-            TypeToken<?> providedType = TypeToken.forType(
-                    ((ParameterizedType) type.getType()).getActualTypeArguments()[0]);
-
-            return (T) providerRequest(providedType, qualifier);
+    private InjectionContext getFallbackView() {
+        InjectionContext view = fallbackView;
+        if (view == null && fallbackContext != null) {
+            InjectionContext[] owners = null;
+            for (int id = 0; id < scopeOwners.length; id++) {
+                if (scopeOwners[id] != null && fallbackContext.getScopeOwner(id) == null) {
+                    if (owners == null) {
+                        owners = Arrays.copyOf(
+                                fallbackContext.scopeOwners,
+                                Math.max(fallbackContext.scopeOwners.length,
+                                         scopeOwners.length));
+                    }
+                    owners[id] = scopeOwners[id];
+                }
+            }
+            view = owners == null ? fallbackContext
+                                  : new InjectionContext(fallbackContext, owners, -1);
+            fallbackView = view;
         }
-
-        InjectionRequest ir = new InjectionRequest(type, qualifier);
-
-        InjectionProvider provider = injectionRequests.get(ir);
-        if (provider == null) {
-            throw new IllegalArgumentException(
-                    "Injector cannot inject a request for type " + type
-                    + " and qualifier " + qualifier);
+        return view;
+    }
+    
+    /**
+     * Returns the context that provides requests bound by the layer that is the given
+     * number of fallbacks away from this context.
+     */
+    private InjectionContext getLayer(int depth) {
+        InjectionContext layer = this;
+        for (int i = 0; i < depth; i++) {
+            layer = layer.getFallbackView();
         }
-        
-        return (T) safeProvide(provider, ir);
+        return layer;
     }
-
+    
     /**
-     * Returns a {@code Provider} that will provide instances for injection requests of
-     * the given type and qualifier.
-     *
-     * @param <T>       the type of the objects provided by the provider
-     * @param type      represents the type of the injection request
-     * @param qualifier the qualifier annotation for the injection request (or
-     *                  {@code null} if there is no qualifier
-     * @return a {@code Provider} that is configure to provide instances for the requests
+     * Makes this context the owner of every scope that is active in the given owners
+     * as well as of each of the given scopes.
      */
-    <T> Provider<T> providerRequest(final TypeToken<T> type,
-                                    final Annotation qualifier) {
-        return new Provider<T>() {
-            @Override
-            public T get() {
-                return injectionRequest(type, qualifier);
+    private InjectionContext[] ownScopes(InjectionContext[] inherited,
+                                         Collection<Annotation> scopes) {
+        InjectionContext[] owners = new InjectionContext[inherited.length];
+        for (int id = 0; id < owners.length; id++) {
+            if (inherited[id] != null) {
+                owners[id] = this;
             }
-        };
+        }
+        for (Annotation scope : scopes) {
+            int id = scopeIds.getId(scope);
+            if (id >= owners.length) {
+                owners = Arrays.copyOf(owners, id + 1);
+            }
+            owners[id] = this;
+        }
+        return owners;
     }
     
     /**
-     * Injects members on the given object in this injection context per
-     * {@link Injector#injectMembers(java.lang.Object)}
-     * 
-     * @param target the target object to inject
+     * Collects each singleton scoped provider whose scope is active in this context.
      */
-    final void injectMembers(Object target) {
-        Introspector.InjectionProfile profile = getInjectionProfile(
-                TypeToken.forClass(target.getClass()));
-
-        for (AccessibleObject element : profile.getInjectableMembers()) {
-            if (element instanceof Field) {
-                injectField((Field) element, target);
-            } else if (element instanceof Method) {
-                injectMethod((Method) element, target);
+    private Set<InjectionProvider> getEagerSingletons() {
+        Set<InjectionProvider> singletons = new LinkedHashSet<>();
+        for (InjectionProvider provider : getProviders()) {
+            if (provider instanceof SingletonScopedInjectionProvider) {
+                int scopeId = ((SingletonScopedInjectionProvider) provider).scopeId;
+                if (getScopeOwner(scopeId) == this) {
+                    singletons.add(provider);
+                }
             }
         }
+        return singletons;
     }
-
+    
     /**
-     * Injects static members on the given class in this injection context per
-     * {@link Injector#injectStatics(java.lang.Object)}
-     * 
-     * @param target the target class to inject
+     * Binds each provider known to this context to the given listener, returning the
+     * stats that record the provisions of each provider or {@code null} if there is
+     * no listener.
      */
-    final void injectStatics(Class<?> targetClass) {
-        Introspector.InjectionProfile profile = getInjectionProfile(
-                TypeToken.forClass(targetClass));
-
-        for (AccessibleObject element : profile.getInjectableStatics()) {
-            if (element instanceof Field) {
-                injectField((Field) element, targetClass);
-            } else if (element instanceof Method) {
-                injectMethod((Method) element, targetClass);
+    private Map<InjectionProvider, ProvisionStats> getRecorders(
+            ProvisionListener listener) {
+        if (listener == null) {
+            return null;
+        }
+        
+        // the qualifier each provider is bound with, or null if it has several
+        Map<InjectionProvider, Annotation> qualifiers = new IdentityHashMap<>();
+        for (Map.Entry<InjectionRequest, InjectionProvider> e
+                : injectionRequests.entrySet()) {
+            Annotation qualifier = e.getKey().getQualifier();
+            if (!qualifiers.containsKey(e.getValue())) {
+                qualifiers.put(e.getValue(), qualifier);
+            } else if (!Objects.equals(qualifiers.get(e.getValue()), qualifier)) {
+                qualifiers.put(e.getValue(), null);
+            }
+        }
+        
+        // bindings the listener does not record are not instrumented at all
+        Map<InjectionProvider, ProvisionStats> bound = new IdentityHashMap<>();
+        for (InjectionProvider provider : getProviders()) {
+            ProvisionListener.Recorder recorder = listener.bind(
+                    provider.getType(), qualifiers.get(provider), getScope(provider));
+            if (recorder != null) {
+                bound.put(provider, new ProvisionStats(recorder));
             }
         }
+        return bound.isEmpty() ? null : bound;
     }
     
-    
-    
-    
-    /** === Private utility methods === **/
-    
-    private Object safeProvide(InjectionProvider provider, InjectionRequest ir) {
-        if (loopDetector.get().contains(provider)) {
-            throw new IllegalStateException(
-                    "Loop detected while attempting to inject type " + ir.getType()
-                    + " and qualifier " + ir.getQualifier());
+    /**
+     * Provides an instance from the given provider, tracing the provision if tracing is
+     * enabled.  The trace of an outermost provision is passed to the tracer once the
+     * provision completes.
+     */
+    private Object instrumentedProvide(InjectionProvider provider, InjectionRequest ir) {
+        if (tracer == null) {
+            return recordedProvide(provider, ir);
         }
-
+        
+        ProvisionTraceImpl parent = currentTrace.get();
+        ProvisionTraceImpl trace = new ProvisionTraceImpl(provider, ir.getQualifier(),
+                                                          parent);
+        currentTrace.set(trace);
+        Object value;
         try {
-            loopDetector.get().add(provider);
-            return provider.provide(ir, this);
+            long start = System.nanoTime();
+            value = recordedProvide(provider, ir);
+            trace.complete(System.nanoTime() - start);
         } finally {
-            loopDetector.get().remove(provider);
+            currentTrace.set(parent);
+        }
+        
+        if (parent == null) {
+            tracer.traced(trace);
         }
+        return value;
     }
-
-    private InjectionContext getParentContext() {
-        return parentContext;
+    
+    /**
+     * Provides an instance from the given provider, recording the time taken if
+     * instrumentation is enabled.
+     */
+    private Object recordedProvide(InjectionProvider provider, InjectionRequest ir) {
+        ProvisionStats recorder = recorders == null ? null : recorders.get(provider);
+        if (recorder == null) {
+            return provider.provide(ir, this);
+        }
+        
+        long start = System.nanoTime();
+        Object value = provider.provide(ir, this);
+        recorder.provisioned(System.nanoTime() - start);
+        return value;
     }
-
-    private Set<Annotation> getLocalScopes() {
-        return localScopes;
+    
+    /**
+     * Records whether an existing instance was found for the given scoped provider if
+     * instrumentation is enabled.
+     */
+    private void recordScope(InjectionProvider provider, boolean hit) {
+        if (!instrumented) {
+            return;
+        }
+        
+        ProvisionStats recorder = recorders == null ? null : recorders.get(provider);
+        if (recorder != null) {
+            if (hit) {
+                recorder.scopeHit();
+            } else {
+                recorder.scopeMiss();
+            }
+        }
+        
+        ProvisionTraceImpl trace = currentTrace == null ? null : currentTrace.get();
+        if (trace != null && trace.getProvider() == provider) {
+            trace.setScopeHit(hit);
+        }
+    }
+    
+    /**
+     * Records that the given scoped provider evicted an instance, or rebuilt an
+     * instance that was reclaimed, if instrumentation is enabled.
+     */
+    private void recordEviction(InjectionProvider provider) {
+        if (!instrumented) {
+            return;
+        }
+        
+        ProvisionStats recorder = recorders == null ? null : recorders.get(provider);
+        if (recorder != null) {
+            recorder.scopeEviction();
+        }
+    }
+    
+    /**
+     * Returns the future for the background instantiation of the given provider in
+     * the context that owns its scope, or {@code null} if there is no such future.
+     */
+    private CompletableFuture<Object> getSingletonFuture(InjectionProvider provider) {
+        if (!(provider instanceof SingletonScopedInjectionProvider)) {
+            return null;
+        }
+        
+        InjectionContext context = getScopeOwner(
+                ((SingletonScopedInjectionProvider) provider).scopeId);
+        return context == null ? null : context.singletonFutures.get(provider);
     }
     
     private InjectionProvider getInjectionProvider(AbstractBinding<?> binding) {
@@ -309,34 +1334,73 @@ class InjectionContext {
             if (found == null) {
                 provider = new UnscopedInjectionProvider(
                         new StandardInstantiator(type));
+            } else if (found.annotationType().getAnnotation(ThreadScoped.class) != null) {
+                provider = new ThreadScopedInjectionProvider(
+                        new StandardInstantiator(type), found, getScopeId(found));
+            } else if (found.annotationType().getAnnotation(Pooled.class) != null) {
+                provider = new PooledInjectionProvider(
+                        new StandardInstantiator(type), found, getScopeId(found),
+                        poolCapacity);
+            } else if (found.annotationType().getAnnotation(Refreshable.class) != null) {
+                provider = new RefreshableScopedInjectionProvider(
+                        new StandardInstantiator(type), found, getScopeId(found),
+                        refreshIntervalNanos);
+            } else if (found.annotationType().getAnnotation(SoftScoped.class) != null) {
+                provider = new SoftScopedInjectionProvider(
+                        new StandardInstantiator(type), found, getScopeId(found));
             } else if (found.annotationType().getAnnotation(Multiton.class) != null) {
+                ContainerImpl.MultitonCapacity bound =
+                        multitonCapacities.get(type.getRawClass());
                 provider = new MultitonScopedInjectionProvider(
-                        new StandardInstantiator(type), found);
+                        new StandardInstantiator(type), found, getScopeId(found),
+                        bound == null ? 0 : bound.getCapacity(),
+                        bound == null ? null : bound.getListener());
             } else {
                 provider = new SingletonScopedInjectionProvider(
-                        new StandardInstantiator(type), found);
+                        new StandardInstantiator(type), found, getScopeId(found));
             }
             injectionProviders.put(type, provider);
         }
         return provider;
     }
     
+    private int getScopeId(Annotation scope) {
+        return scopeIds.getId(scope);
+    }
+    
     private InjectionProvider getCollectionInjectionProvider(
             AbstractCollectionBinding<?> binding, InjectionInstantiator instantiator) {
         Annotation scope = binding.getScope();
         if (scope == null) {
             return new UnscopedInjectionProvider(instantiator);
+        } else if (scope.annotationType().getAnnotation(ThreadScoped.class) != null) {
+            return new ThreadScopedInjectionProvider(instantiator, scope,
+                                                     getScopeId(scope));
+        } else if (scope.annotationType().getAnnotation(Pooled.class) != null) {
+            return new PooledInjectionProvider(instantiator, scope, getScopeId(scope),
+                                               poolCapacity);
+        } else if (scope.annotationType().getAnnotation(Refreshable.class) != null) {
+            return new RefreshableScopedInjectionProvider(instantiator, scope,
+                                                          getScopeId(scope),
+                                                          refreshIntervalNanos);
+        } else if (scope.annotationType().getAnnotation(SoftScoped.class) != null) {
+            return new SoftScopedInjectionProvider(instantiator, scope,
+                                                   getScopeId(scope));
         } else if (scope.annotationType().getAnnotation(Multiton.class) != null) {
-            return new MultitonScopedInjectionProvider(instantiator, scope);
+            return new MultitonScopedInjectionProvider(instantiator, scope,
+                                                       getScopeId(scope), 0, null);
         } else {
-            return new SingletonScopedInjectionProvider(instantiator, scope);
+            return new SingletonScopedInjectionProvider(instantiator, scope,
+                                                        getScopeId(scope));
         }
     }
     
     private Introspector.InjectionProfile getInjectionProfile(TypeToken<?> type) {
         Introspector.InjectionProfile profile = injectionProfiles.get(type);
         if (profile == null) {
+            InjectionEvents.Span span = InjectionEvents.EVENTS.beginIntrospection(type);
             profile = Introspector.getInjectionProfile(type, accessProfile);
+            span.end();
             injectionProfiles.put(type, profile);
         }
         return profile;
@@ -351,9 +1415,131 @@ class InjectionContext {
                     + request.getQualifier());
         }
     }
+    
+    private void addInjectionPoints(List<InjectionPoint> points, String name,
+                                    Type[] paramTypes, Annotation[][] paramAnnotations) {
+        for (int i = 0; i < paramTypes.length; i++) {
+            addInjectionPoint(points, name + " parameter " + i, paramTypes[i],
+                              findQualifier(paramAnnotations[i]));
+        }
+    }
+    
+    private void addInjectionPoint(List<InjectionPoint> points, String name,
+                                   Type type, Annotation qualifier) {
+        TypeToken<?> token = TypeToken.forType(type);
+        boolean deferred = false;
+        boolean bound = findProvider(new InjectionRequest(token, qualifier)) != null;
+        if ((Objects.equals(token.getRawClass(), Provider.class) ||
+             Objects.equals(token.getRawClass(), Lazy.class) ||
+             (Objects.equals(token.getRawClass(), CompletableFuture.class) && !bound))
+            && type instanceof ParameterizedType) {
+            token = TypeToken.forType(
+                    ((ParameterizedType) type).getActualTypeArguments()[0]);
+            deferred = true;
+        } else if (Objects.equals(token.getRawClass(), Optional.class)
+                   && type instanceof ParameterizedType && !bound) {
+            token = TypeToken.forType(
+                    ((ParameterizedType) type).getActualTypeArguments()[0]);
+        }
+        
+        InjectionProvider provider = findProvider(new InjectionRequest(token, qualifier));
+        points.add(new InjectionPoint(name, token, qualifier, provider, deferred));
+    }
+    
+    /**
+     * Returns the provider bound to the given request by this context or by the
+     * contexts it falls back to, or {@code null} if the request is not bound.
+     */
+    private InjectionProvider findProvider(InjectionRequest request) {
+        InjectionProvider provider = null;
+        for (InjectionContext current = this; provider == null && current != null;
+             current = current.fallbackContext) {
+            provider = current.injectionRequests.get(request);
+        }
+        return provider;
+    }
+    
+    /**
+     * Creates the injection point for a member of an injectable collection.
+     */
+    private static InjectionPoint getMemberInjectionPoint(String name,
+                                                          InjectionProvider member) {
+        return new InjectionPoint(name, member.getType(), null, member, false);
+    }
+    
+    /**
+     * Returns the {@code Qualifier} annotation in the given annotations.
+     * 
+     * @param annotations the annotations to search
+     * @return the qualifier annotation or {@code null} if there is no qualifier
+     */
+    private static Annotation findQualifier(Annotation[] annotations) {
+        Annotation qualifier = null;
+        for (Annotation annon : annotations) {
+            if (annon.annotationType().getAnnotation(Qualifier.class) != null) {
+                qualifier = annon;
+            }
+        }
+        return qualifier;
+    }
 
     
 
+    /**
+     * Returns the handles for the injected field or the parameters of the injected
+     * method or constructor, which are found on the first injection of the member so
+     * that later injections do not build a key for each injection request.
+     *
+     * @param member the injected field, method or constructor
+     * @return the handle of each injection request of the member
+     */
+    private ResolvedHandle<?>[] getMemberHandles(AccessibleObject member) {
+        ResolvedHandle<?>[] handles = memberHandles.get(member);
+        if (handles != null) {
+            return handles;
+        }
+        
+        if (member instanceof Field) {
+            Field field = (Field) member;
+            handles = new ResolvedHandle<?>[] {
+                findHandle(Key.forType(TypeToken.forType(field.getGenericType()),
+                                       findQualifier(field.getAnnotations())))
+            };
+        } else {
+            Type[] paramTypes;
+            Annotation[][] paramAnnotations;
+            if (member instanceof Method) {
+                paramTypes = ((Method) member).getGenericParameterTypes();
+                paramAnnotations = ((Method) member).getParameterAnnotations();
+            } else {
+                paramTypes = ((Constructor<?>) member).getGenericParameterTypes();
+                paramAnnotations = ((Constructor<?>) member).getParameterAnnotations();
+            }
+            handles = new ResolvedHandle<?>[paramTypes.length];
+            for (int i = 0; i < paramTypes.length; i++) {
+                handles[i] = findHandle(Key.forType(TypeToken.forType(paramTypes[i]),
+                                                    findQualifier(paramAnnotations[i])));
+            }
+        }
+        
+        memberHandles.putIfAbsent(member, handles);
+        return handles;
+    }
+    
+    /**
+     * Performs the injection request of each of the given handles.
+     *
+     * @param handles the handles of the injection requests
+     * @return the results of the injection requests
+     */
+    private Object[] handleRequests(ResolvedHandle<?>[] handles) {
+        Object[] args = new Object[handles.length];
+        for (int i = 0; i < handles.length; i++) {
+            args[i] = handleRequest(handles[i]);
+        }
+        return args;
+    }
+
     /**
      * Performs an injection request for a {@code Field} and assigns the resulting value
      * to the given target object.
@@ -362,15 +1548,7 @@ class InjectionContext {
      * @param target the target object to assign the field value to
      */
     private void injectField(Field field, Object target) {
-        Annotation qualifier = null;
-        for (Annotation annon : field.getAnnotations()) {
-            if (annon.annotationType().getAnnotation(Qualifier.class) != null) {
-                qualifier = annon;
-            }
-        }
-
-        Reflector.setField(field, target, injectionRequest(
-                           TypeToken.forType(field.getGenericType()), qualifier));
+        Reflector.setField(field, target, handleRequest(getMemberHandles(field)[0]));
     }
 
     /**
@@ -381,21 +1559,8 @@ class InjectionContext {
      * @param target the target object to invoke the method on
      */
     private void injectMethod(Method method, Object target) {
-        List<Object> args = new ArrayList<>();
-        Type[] paramTypes = method.getGenericParameterTypes();
-        Annotation[][] paramAnnotations = method.getParameterAnnotations();
-        for (int i = 0; i < paramTypes.length; i++) {
-            Annotation qualifier = null;
-            for (Annotation annon : paramAnnotations[i]) {
-                if (annon.annotationType().getAnnotation(Qualifier.class) != null) {
-                    qualifier = annon;
-                }
-            }
-
-            args.add(injectionRequest(TypeToken.forType(paramTypes[i]), qualifier));
-        }
-
-        Reflector.invokeMethod(method, target, args.toArray());
+        Reflector.invokeMethod(method, target,
+                               handleRequests(getMemberHandles(method)));
     }
 
     /**
@@ -407,22 +1572,7 @@ class InjectionContext {
      * @return the instantiated object resulting from invoking the given constructor
      */
     private <T> T injectConstructor(Constructor<T> ctr) {
-        // prepare injection request for each constructor parameter
-        List<Object> args = new ArrayList<>();
-        Type[] paramTypes = ctr.getGenericParameterTypes();
-        Annotation[][] paramAnnotations = ctr.getParameterAnnotations();
-        for (int i = 0; i < paramTypes.length; i++) {
-            Annotation qualifier = null;
-            for (Annotation annon : paramAnnotations[i]) {
-                if (annon.annotationType().getAnnotation(Qualifier.class) != null) {
-                    qualifier = annon;
-                }
-            }
-
-            args.add(injectionRequest(TypeToken.forType(paramTypes[i]), qualifier));
-        }
-
-        return Reflector.invokeConstructor(ctr, args.toArray());
+        return Reflector.invokeConstructor(ctr, handleRequests(getMemberHandles(ctr)));
     }
 
     
@@ -448,6 +1598,11 @@ class InjectionContext {
         public TypeToken<?> getType() {
             return implementation;
         }
+
+        @Override
+        public List<InjectionPoint> getInjectionPoints(InjectionContext context) {
+            return context.resolveInjectionPoints(implementation);
+        }
         
     }
     
@@ -475,6 +1630,16 @@ class InjectionContext {
         public TypeToken<?> getType() {
             return mapType;
         }
+
+        @Override
+        public List<InjectionPoint> getInjectionPoints(InjectionContext context) {
+            List<InjectionPoint> points = new ArrayList<>();
+            for (Map.Entry<Object, InjectionProvider> entry : config.entrySet()) {
+                points.add(getMemberInjectionPoint("key " + entry.getKey(),
+                                                   entry.getValue()));
+            }
+            return points;
+        }
         
         private void put(Object key, InjectionProvider value) {
             if (config.put(key, value) != null) {
@@ -485,17 +1650,19 @@ class InjectionContext {
     }
     
     private static class ListInstantiator implements InjectionInstantiator {
-        private final List<InjectionProvider> config;
+        private final List<ListMember> config;
         private final TypeToken<?> listType;
+        private InjectionProvider[] ordered;
         private ListInstantiator(TypeToken<?> listType) {
             this.config = new ArrayList<>();
             this.listType = listType;
+            this.ordered = new InjectionProvider[0];
         }
 
         @Override
         public Object instantiate(InjectionContext context) {
-            List<Object> list = new ArrayList<>();
-            for (InjectionProvider provider : config) {
+            List<Object> list = new ArrayList<>(ordered.length);
+            for (InjectionProvider provider : ordered) {
                 list.add(context.safeProvide(provider,
                                              new InjectionRequest(TypeToken.forClass(
                                                      Object.class), null)));
@@ -507,9 +1674,47 @@ class InjectionContext {
         public TypeToken<?> getType() {
             return listType;
         }
+
+        @Override
+        public List<InjectionPoint> getInjectionPoints(InjectionContext context) {
+            List<InjectionPoint> points = new ArrayList<>();
+            for (int i = 0; i < ordered.length; i++) {
+                points.add(getMemberInjectionPoint("element " + i, ordered[i]));
+            }
+            return points;
+        }
         
-        private void add(InjectionProvider value) {
-            config.add(value);
+        private void add(int priority, InjectionProvider value) {
+            config.add(new ListMember(priority, value));
+        }
+        
+        /**
+         * Sorts the configured members by priority, preserving the order in which they
+         * were added for members of equal priority.  This is done once when the
+         * injection context is created so that no sorting happens during injection.
+         */
+        private void order() {
+            Collections.sort(config, new Comparator<ListMember>() {
+                @Override
+                public int compare(ListMember m1, ListMember m2) {
+                    return Integer.compare(m1.priority, m2.priority);
+                }
+            });
+            
+            InjectionProvider[] providers = new InjectionProvider[config.size()];
+            for (int i = 0; i < providers.length; i++) {
+                providers[i] = config.get(i).provider;
+            }
+            this.ordered = providers;
+        }
+    }
+    
+    private static class ListMember {
+        private final int priority;
+        private final InjectionProvider provider;
+        private ListMember(int priority, InjectionProvider provider) {
+            this.priority = priority;
+            this.provider = provider;
         }
     }
     
@@ -536,6 +1741,15 @@ class InjectionContext {
         public TypeToken<?> getType() {
             return setType;
         }
+
+        @Override
+        public List<InjectionPoint> getInjectionPoints(InjectionContext context) {
+            List<InjectionPoint> points = new ArrayList<>();
+            for (InjectionProvider provider : config) {
+                points.add(getMemberInjectionPoint("member", provider));
+            }
+            return points;
+        }
         
         private void add(InjectionProvider value) {
             config.add(value);
@@ -557,7 +1771,48 @@ class InjectionContext {
         public Object provide(InjectionRequest request, InjectionContext context) {
             return instance;
         }
+
+        @Override
+        public TypeToken<?> getType() {
+            return TypeToken.forClass(instance.getClass());
+        }
+
+        @Override
+        public List<InjectionPoint> getInjectionPoints(InjectionContext context) {
+            return Collections.emptyList();
+        }
+        
+    }
+    
+    /**
+     * Performs the injection request of a {@code Provider} once, on the first call to
+     * {@link #get()}, and returns the same instance thereafter.  The instance is
+     * published through a volatile field so that only the first calls lock, and the
+     * provider is released once the instance has been built.
+     */
+    private static class MemoizedLazy<T> implements Lazy<T> {
+        private Provider<T> provider;
+        private volatile T instance;
+        
+        private MemoizedLazy(Provider<T> provider) {
+            this.provider = provider;
+        }
         
+        @Override
+        public T get() {
+            T result = instance;
+            if (result == null) {
+                synchronized (this) {
+                    result = instance;
+                    if (result == null) {
+                        result = provider.get();
+                        instance = result;
+                        provider = null;
+                    }
+                }
+            }
+            return result;
+        }
     }
     
     /**
@@ -575,6 +1830,16 @@ class InjectionContext {
                                            InjectionContext context) {
             return instantiator.instantiate(context);
         }
+
+        @Override
+        public TypeToken<?> getType() {
+            return instantiator.getType();
+        }
+
+        @Override
+        public List<InjectionPoint> getInjectionPoints(InjectionContext context) {
+            return instantiator.getInjectionPoints(context);
+        }
     }
     
     /**
@@ -582,26 +1847,25 @@ class InjectionContext {
      * in a particular scope.  Note that this provider serves injection requests for
      * multiple different injection contexts and thus may manage multiple instances
      * of the given type in order to satisfy the requirements of each independent
-     * injector.
+     * injector.  Each instance is held by the context that owns the scope, so the
+     * instances of an entered scope are released along with its injector.
      */
     private static class SingletonScopedInjectionProvider implements InjectionProvider {
         private final InjectionInstantiator instantiator;
         private final Annotation scope;
-        private final Map<InjectionContext, Object> instances;
+        private final int scopeId;
         
         private SingletonScopedInjectionProvider(InjectionInstantiator instantiator,
-                                                 Annotation scope) {
+                                                 Annotation scope, int scopeId) {
             this.instantiator = instantiator;
             this.scope = scope;
-            this.instances = new HashMap<>();
+            this.scopeId = scopeId;
         }
 
         @Override
         public synchronized Object provide(InjectionRequest request, 
                                            InjectionContext context) {
-            while (context != null && !context.getLocalScopes().contains(scope)) { 
-                context = context.getParentContext();
-            }
+            context = context.getScopeOwner(scopeId);
             
             if (context == null) {
                 throw new IllegalStateException(
@@ -610,17 +1874,29 @@ class InjectionContext {
             }
             
             // if we made it here, look for an existing instance in the determined context
-            Object instance = instances.get(context);
+            Object instance = context.getScopedInstance(this);
             if (instance != null) {
+                context.recordScope(this, true);
                 return instance;
             }
             
             // construct a new instance if needed
+            context.recordScope(this, false);
             Object value = instantiator.instantiate(context);
-            instances.put(context, value);
+            context.getScopedInstances().put(this, value);
             
             return value;
         }
+
+        @Override
+        public TypeToken<?> getType() {
+            return instantiator.getType();
+        }
+
+        @Override
+        public List<InjectionPoint> getInjectionPoints(InjectionContext context) {
+            return instantiator.getInjectionPoints(context);
+        }
         
     }
     
@@ -629,48 +1905,493 @@ class InjectionContext {
      * in a particular scope with the same qualifier annotation.  Note that this provider
      * serves injection requests for multiple different injection contexts and thus may
      * manage multiple instances of the given type in order to satisfy the requirements
-     * of each independent injector.
+     * of each independent injector.  The instances are held by the context that owns
+     * the scope, per {@link SingletonScopedInjectionProvider}.  If a capacity is given,
+     * the instances of each context are kept in access order and the least recently
+     * used instance is evicted once the capacity is exceeded.  The eviction listener is
+     * notified after the lock of the provider has been released.
      */
     private static class MultitonScopedInjectionProvider implements InjectionProvider {
         private final InjectionInstantiator instantiator;
         private final Annotation scope;
-        private final Map<InjectionContext, Map<Annotation, Object>> instances;
+        private final int scopeId;
+        private final int capacity;
+        private final EvictionListener listener;
         
         private MultitonScopedInjectionProvider(InjectionInstantiator instantiator,
-                                                Annotation scope) {
+                                                Annotation scope, int scopeId,
+                                                int capacity,
+                                                EvictionListener listener) {
             this.instantiator = instantiator;
             this.scope = scope;
-            this.instances = new HashMap<>();
+            this.scopeId = scopeId;
+            this.capacity = capacity;
+            this.listener = listener;
         }
 
         @Override
-        public synchronized Object provide(InjectionRequest request, 
-                                           InjectionContext context) {
-            while (context != null && !context.getLocalScopes().contains(scope)) { 
-                context = context.getParentContext();
+        public Object provide(InjectionRequest request, InjectionContext context) {
+            context = context.getScopeOwner(scopeId);
+            
+            if (context == null) {
+                throw new IllegalStateException(
+                        "Cannot provide an instance of type " + instantiator.getType() + 
+                        " since its Scope " + scope + " is not active");
             }
             
+            Object value;
+            Map.Entry<Annotation, Object> evicted = null;
+            synchronized (this) {
+                Map<Annotation, Object> instanceContext =
+                        (Map<Annotation, Object>) context.getScopedInstance(this);
+                if (instanceContext == null) {
+                    instanceContext = capacity == 0
+                                      ? new HashMap<Annotation, Object>()
+                                      : new LinkedHashMap<Annotation, Object>(
+                                              16, 0.75f, true);
+                    context.getScopedInstances().put(this, instanceContext);
+                }
+                Object instance = instanceContext.get(request.getQualifier());
+                if (instance != null) {
+                    context.recordScope(this, true);
+                    return instance;
+                }
+                
+                context.recordScope(this, false);
+                value = instantiator.instantiate(context);
+                instanceContext.put(request.getQualifier(), value);
+                
+                if (capacity != 0 && instanceContext.size() > capacity) {
+                    Iterator<Map.Entry<Annotation, Object>> eldest =
+                            instanceContext.entrySet().iterator();
+                    evicted = new AbstractMap.SimpleImmutableEntry<>(eldest.next());
+                    eldest.remove();
+                    context.recordEviction(this);
+                }
+            }
+            
+            if (evicted != null && listener != null) {
+                listener.evicted(instantiator.getType(), evicted.getKey(),
+                                 evicted.getValue());
+            }
+            return value;
+        }
+
+        @Override
+        public TypeToken<?> getType() {
+            return instantiator.getType();
+        }
+
+        @Override
+        public List<InjectionPoint> getInjectionPoints(InjectionContext context) {
+            return instantiator.getInjectionPoints(context);
+        }
+        
+    }
+    
+    /**
+     * Provides one injector-instantiated instance per thread for every injection
+     * request in a particular scope.  The instances for each context that owns the
+     * scope are held by a {@code ThreadLocal} that the context holds, so a thread that
+     * already has an instance retrieves it without locking or allocating.
+     */
+    private static class ThreadScopedInjectionProvider implements InjectionProvider {
+        private final InjectionInstantiator instantiator;
+        private final Annotation scope;
+        private final int scopeId;
+        
+        private ThreadScopedInjectionProvider(InjectionInstantiator instantiator,
+                                              Annotation scope, int scopeId) {
+            this.instantiator = instantiator;
+            this.scope = scope;
+            this.scopeId = scopeId;
+        }
+
+        @Override
+        public Object provide(InjectionRequest request, InjectionContext context) {
+            context = context.getScopeOwner(scopeId);
+            
             if (context == null) {
                 throw new IllegalStateException(
                         "Cannot provide an instance of type " + instantiator.getType() + 
                         " since its Scope " + scope + " is not active");
             }
             
-            Map<Annotation, Object> instanceContext = instances.get(context);
-            if (instanceContext == null) {
-                instanceContext = new HashMap<>();
-                instances.put(context, instanceContext);
+            ThreadLocal<Object> slot =
+                    (ThreadLocal<Object>) context.getScopedInstance(this);
+            if (slot == null) {
+                ThreadLocal<Object> created = new ThreadLocal<>();
+                slot = (ThreadLocal<Object>) context.getScopedInstances().putIfAbsent(
+                        this, created);
+                if (slot == null) {
+                    slot = created;
+                }
             }
-            Object instance = instanceContext.get(request.getQualifier());
+            Object instance = slot.get();
             if (instance != null) {
+                context.recordScope(this, true);
                 return instance;
             }
             
+            context.recordScope(this, false);
             Object value = instantiator.instantiate(context);
-            instanceContext.put(request.getQualifier(), value);
+            slot.set(value);
             
             return value;
         }
         
+        /**
+         * Removes the instance held for the calling thread in the given context.
+         * 
+         * @param context the context that owns the scope
+         * @return the removed instance or {@code null} if there was none
+         */
+        private Object release(InjectionContext context) {
+            ThreadLocal<Object> slot =
+                    (ThreadLocal<Object>) context.getScopedInstance(this);
+            if (slot == null) {
+                return null;
+            }
+            
+            Object instance = slot.get();
+            slot.remove();
+            return instance;
+        }
+
+        @Override
+        public TypeToken<?> getType() {
+            return instantiator.getType();
+        }
+
+        @Override
+        public List<InjectionPoint> getInjectionPoints(InjectionContext context) {
+            return instantiator.getInjectionPoints(context);
+        }
+        
+    }
+    
+    /**
+     * Leases an injector-instantiated instance from a bounded pool to each context that
+     * owns a particular scope.  Within the lease, every injection request is served by
+     * the same instance, which is held by the owning context until it exits the scope
+     * and then returned to the pool.  Taking an idle instance from the pool is recorded
+     * as a scope hit and instantiating a new one as a scope miss.
+     */
+    private static class PooledInjectionProvider implements InjectionProvider {
+        private final InjectionInstantiator instantiator;
+        private final Annotation scope;
+        private final int scopeId;
+        private final InstancePool pool;
+        
+        private PooledInjectionProvider(InjectionInstantiator instantiator,
+                                        Annotation scope, int scopeId, int capacity) {
+            this.instantiator = instantiator;
+            this.scope = scope;
+            this.scopeId = scopeId;
+            this.pool = new InstancePool(capacity);
+        }
+
+        @Override
+        public Object provide(InjectionRequest request, InjectionContext context) {
+            context = context.getScopeOwner(scopeId);
+            
+            if (context == null) {
+                throw new IllegalStateException(
+                        "Cannot provide an instance of type " + instantiator.getType() + 
+                        " since its Scope " + scope + " is not active");
+            }
+            
+            Object instance = context.getScopedInstance(this);
+            if (instance != null) {
+                return instance;
+            }
+            
+            instance = pool.acquire();
+            if (instance != null) {
+                context.recordScope(this, true);
+            } else {
+                context.recordScope(this, false);
+                instance = instantiator.instantiate(context);
+            }
+            
+            // another thread of the same lease may have leased an instance first
+            Object leased = context.getScopedInstances().putIfAbsent(this, instance);
+            if (leased != null) {
+                pool.release(instance);
+                return leased;
+            }
+            return instance;
+        }
+        
+        /**
+         * Ends the lease of the given context, resetting its instance and returning it
+         * to the pool.
+         * 
+         * @param context the context that owns the scope
+         * @throws RuntimeException if the instance fails to reset, in which case it is
+         *                          discarded
+         */
+        private void release(InjectionContext context) {
+            Object instance = context.getScopedInstances().remove(this);
+            if (instance == null) {
+                return;
+            }
+            
+            if (instance instanceof Poolable) {
+                ((Poolable) instance).reset();
+            }
+            pool.release(instance);
+        }
+
+        @Override
+        public TypeToken<?> getType() {
+            return instantiator.getType();
+        }
+
+        @Override
+        public List<InjectionPoint> getInjectionPoints(InjectionContext context) {
+            return instantiator.getInjectionPoints(context);
+        }
+        
+    }
+    
+    /**
+     * Provides the same injector-instantiated instance for every injection request in
+     * a particular scope, like {@link SingletonScopedInjectionProvider}, but holds the
+     * instance through a {@code SoftReference} so that it can be reclaimed under memory
+     * pressure.  A reclaimed instance is rebuilt by the next request and the rebuild is
+     * recorded as an eviction.
+     */
+    private static class SoftScopedInjectionProvider implements InjectionProvider {
+        private final InjectionInstantiator instantiator;
+        private final Annotation scope;
+        private final int scopeId;
+        
+        private SoftScopedInjectionProvider(InjectionInstantiator instantiator,
+                                            Annotation scope, int scopeId) {
+            this.instantiator = instantiator;
+            this.scope = scope;
+            this.scopeId = scopeId;
+        }
+
+        @Override
+        public Object provide(InjectionRequest request, InjectionContext context) {
+            context = context.getScopeOwner(scopeId);
+            
+            if (context == null) {
+                throw new IllegalStateException(
+                        "Cannot provide an instance of type " + instantiator.getType() + 
+                        " since its Scope " + scope + " is not active");
+            }
+            
+            SoftReference<?> reference =
+                    (SoftReference<?>) context.getScopedInstance(this);
+            Object instance = reference == null ? null : reference.get();
+            if (instance != null) {
+                context.recordScope(this, true);
+                return instance;
+            }
+            
+            synchronized (this) {
+                reference = (SoftReference<?>) context.getScopedInstance(this);
+                instance = reference == null ? null : reference.get();
+                if (instance != null) {
+                    context.recordScope(this, true);
+                    return instance;
+                }
+                
+                context.recordScope(this, false);
+                instance = instantiator.instantiate(context);
+                context.getScopedInstances().put(this, new SoftReference<>(instance));
+                if (reference != null) {
+                    context.recordEviction(this);
+                }
+                return instance;
+            }
+        }
+
+        @Override
+        public TypeToken<?> getType() {
+            return instantiator.getType();
+        }
+
+        @Override
+        public List<InjectionPoint> getInjectionPoints(InjectionContext context) {
+            return instantiator.getInjectionPoints(context);
+        }
+        
+    }
+    
+    /**
+     * Provides the same injector-instantiated instance for every injection request in
+     * a particular scope, like {@link SingletonScopedInjectionProvider}, but rebuilds
+     * the instance in the background once it is older than the refresh interval or
+     * when a refresh is requested.  The current instance is provided until the rebuilt
+     * instance replaces it, so only the first request in each context waits for an
+     * instance to be built.
+     */
+    private static class RefreshableScopedInjectionProvider implements InjectionProvider {
+        private final InjectionInstantiator instantiator;
+        private final Annotation scope;
+        private final int scopeId;
+        private final long intervalNanos;
+        
+        private RefreshableScopedInjectionProvider(InjectionInstantiator instantiator,
+                                                   Annotation scope, int scopeId,
+                                                   long intervalNanos) {
+            this.instantiator = instantiator;
+            this.scope = scope;
+            this.scopeId = scopeId;
+            this.intervalNanos = intervalNanos;
+        }
+
+        @Override
+        public Object provide(InjectionRequest request, InjectionContext context) {
+            context = context.getScopeOwner(scopeId);
+            
+            if (context == null) {
+                throw new IllegalStateException(
+                        "Cannot provide an instance of type " + instantiator.getType() + 
+                        " since its Scope " + scope + " is not active");
+            }
+            
+            RefreshState state = getState(context);
+            Object instance = state.instance;
+            if (instance == null) {
+                synchronized (state) {
+                    instance = state.instance;
+                    if (instance == null) {
+                        // nothing to provide while building, so build in this thread
+                        context.recordScope(this, false);
+                        instance = instantiator.instantiate(context);
+                        state.update(instance);
+                    }
+                }
+                return instance;
+            }
+            
+            context.recordScope(this, true);
+            if (intervalNanos > 0
+                && System.nanoTime() - state.refreshedNanos >= intervalNanos) {
+                refresh(context, state);
+            }
+            return instance;
+        }
+        
+        /**
+         * Rebuilds the instance of the given context in the background.
+         * 
+         * @param context the context that owns the scope
+         * @return a future completed with the rebuilt instance
+         */
+        private CompletableFuture<Object> refresh(InjectionContext context) {
+            context = context.getScopeOwner(scopeId);
+            if (context == null) {
+                throw new IllegalStateException(
+                        "Cannot refresh an instance of type " + instantiator.getType() + 
+                        " since its Scope " + scope + " is not active");
+            }
+            return refresh(context, getState(context));
+        }
+        
+        private CompletableFuture<Object> refresh(final InjectionContext context,
+                                                  final RefreshState state) {
+            CompletableFuture<Object> pending = state.pending.get();
+            if (pending != null) {
+                // join the rebuild in progress without allocating
+                return pending;
+            }
+            
+            final CompletableFuture<Object> future = new CompletableFuture<>();
+            while (!state.pending.compareAndSet(null, future)) {
+                pending = state.pending.get();
+                if (pending != null) {
+                    return pending;
+                }
+            }
+            
+            Executor executor = context.asyncExecutor != null
+                                ? context.asyncExecutor : ForkJoinPool.commonPool();
+            try {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        rebuild(context, state, future);
+                    }
+                });
+            } catch (RuntimeException e) {
+                // keep the current instance and retry after another interval
+                state.fail(future, e);
+            }
+            return future;
+        }
+        
+        private void rebuild(InjectionContext context, RefreshState state,
+                             CompletableFuture<Object> future) {
+            Object value;
+            try {
+                context.recordScope(this, false);
+                value = instantiator.instantiate(context);
+            } catch (RuntimeException e) {
+                state.fail(future, e);
+                return;
+            } catch (Error e) {
+                // never leave the rebuild pending, but let the executor see the error
+                state.fail(future, e);
+                throw e;
+            }
+            
+            synchronized (state) {
+                state.update(value);
+            }
+            state.pending.set(null);
+            future.complete(value);
+        }
+        
+        private RefreshState getState(InjectionContext context) {
+            RefreshState state = (RefreshState) context.getScopedInstance(this);
+            if (state == null) {
+                RefreshState created = new RefreshState();
+                state = (RefreshState) context.getScopedInstances().putIfAbsent(
+                        this, created);
+                if (state == null) {
+                    state = created;
+                }
+            }
+            return state;
+        }
+
+        @Override
+        public TypeToken<?> getType() {
+            return instantiator.getType();
+        }
+
+        @Override
+        public List<InjectionPoint> getInjectionPoints(InjectionContext context) {
+            return instantiator.getInjectionPoints(context);
+        }
+        
+    }
+    
+    /**
+     * The current instance of a refreshable binding in a context along with the time
+     * it was built and the rebuild in progress, if any.
+     */
+    private static class RefreshState {
+        private volatile Object instance;
+        private volatile long refreshedNanos;
+        private final AtomicReference<CompletableFuture<Object>> pending =
+                new AtomicReference<>();
+        
+        private void update(Object value) {
+            refreshedNanos = System.nanoTime();
+            instance = value;
+        }
+        
+        private void fail(CompletableFuture<Object> future, Throwable e) {
+            refreshedNanos = System.nanoTime();
+            pending.set(null);
+            future.completeExceptionally(e);
+        }
     }
 }
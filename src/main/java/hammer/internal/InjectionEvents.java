@@ -0,0 +1,153 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.internal;
+
+import hammer.api.Loader;
+import hammer.api.TypeToken;
+
+/**
+ * Emits diagnostic events for injector creation and provisioning.  If the Java Flight
+ * Recorder API is available, the events are emitted as Flight Recorder events,
+ * otherwise they are discarded.  The Flight Recorder classes are only loaded when the
+ * API is available, so this class is safe to use on runtimes without it.
+ */
+abstract class InjectionEvents {
+
+    /**
+     * The events implementation for the current runtime.
+     */
+    static final InjectionEvents EVENTS = create();
+
+    /**
+     * A timed event that is emitted when it ends.
+     */
+    interface Span {
+
+        /**
+         * End the event and emit it if it is enabled.
+         */
+        void end();
+    }
+
+    /**
+     * A timed provision that is emitted when it ends.
+     */
+    interface ProvisionSpan {
+
+        /**
+         * End the provision and emit it if it is enabled and exceeds its threshold.
+         *
+         * @param provider the provider that provided the instance
+         * @param request the request that was satisfied
+         * @param depth the number of nested provisions in progress, including this one
+         */
+        void end(InjectionProvider provider, InjectionRequest request, int depth);
+    }
+
+    /**
+     * @return a span covering the creation of an injector
+     */
+    abstract Span beginCreation();
+
+    /**
+     * @param loader the loader being executed
+     * @return a span covering the execution of the given loader
+     */
+    abstract Span beginLoader(Loader loader);
+
+    /**
+     * @param type the type being introspected
+     * @return a span covering the introspection of the given type
+     */
+    abstract Span beginIntrospection(TypeToken<?> type);
+
+    /**
+     * @param result the loaded container whose bindings are validated
+     * @return a span covering the construction and validation of the bindings
+     */
+    abstract Span beginValidation(ContainerImpl.Result result);
+
+    /**
+     * Indicates whether provisions may be emitted.  This is checked on every provision
+     * and so is cheap.
+     *
+     * @return {@code true} if provisions should be timed using
+     *         {@link #beginProvision()}
+     */
+    abstract boolean isProvisionEnabled();
+
+    /**
+     * @return a span covering a single provision
+     */
+    abstract ProvisionSpan beginProvision();
+
+    private static InjectionEvents create() {
+        try {
+            Class.forName("jdk.jfr.FlightRecorder", false,
+                          InjectionEvents.class.getClassLoader());
+            return FlightRecorderEvents.create();
+        } catch (ClassNotFoundException | LinkageError | SecurityException e) {
+            return new DiscardedEvents();
+        }
+    }
+
+    /**
+     * Discards all events.
+     */
+    private static class DiscardedEvents extends InjectionEvents
+            implements Span, ProvisionSpan {
+
+        @Override
+        Span beginCreation() {
+            return this;
+        }
+
+        @Override
+        Span beginLoader(Loader loader) {
+            return this;
+        }
+
+        @Override
+        Span beginIntrospection(TypeToken<?> type) {
+            return this;
+        }
+
+        @Override
+        Span beginValidation(ContainerImpl.Result result) {
+            return this;
+        }
+
+        @Override
+        boolean isProvisionEnabled() {
+            return false;
+        }
+
+        @Override
+        ProvisionSpan beginProvision() {
+            return this;
+        }
+
+        @Override
+        public void end() {
+        }
+
+        @Override
+        public void end(InjectionProvider provider, InjectionRequest request,
+                        int depth) {
+        }
+    }
+
+}
@@ -1,6 +1,8 @@
 
 package hammer.internal;
 
+import java.util.List;
+
 import hammer.api.TypeToken;
 
 /**
@@ -12,4 +14,6 @@ interface InjectionInstantiator {
     Object instantiate(InjectionContext context);
     
     TypeToken<?> getType();
+    
+    List<InjectionPoint> getInjectionPoints(InjectionContext context);
 }
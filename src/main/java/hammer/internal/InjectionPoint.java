@@ -0,0 +1,91 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.internal;
+
+import java.lang.annotation.Annotation;
+
+import hammer.api.TypeToken;
+
+/**
+ * Describes a single dependency of an {@link InjectionProvider}, such as an injectable
+ * constructor parameter, field or method parameter, or a member of an injectable
+ * collection.
+ */
+class InjectionPoint {
+
+    private final String name;
+    private final TypeToken<?> type;
+    private final Annotation qualifier;
+    private final InjectionProvider provider;
+    private final boolean deferred;
+
+    /**
+     * Create a new {@link InjectionPoint} with the given parameters.
+     *
+     * @param name a description of the injection point
+     * @param type the type of the dependency
+     * @param qualifier the qualifier of the dependency or {@code null} if none
+     * @param provider the provider that satisfies the dependency or {@code null} if
+     *                 the dependency cannot be satisfied
+     * @param deferred {@code true} if the dependency is only provided on demand, such
+     *                 as through a {@code Provider} or {@code CompletableFuture}
+     */
+    InjectionPoint(String name, TypeToken<?> type, Annotation qualifier,
+                   InjectionProvider provider, boolean deferred) {
+        this.name = name;
+        this.type = type;
+        this.qualifier = qualifier;
+        this.provider = provider;
+        this.deferred = deferred;
+    }
+
+    /**
+     * @return a description of the injection point
+     */
+    String getName() {
+        return name;
+    }
+
+    /**
+     * @return the type of the dependency
+     */
+    TypeToken<?> getType() {
+        return type;
+    }
+
+    /**
+     * @return the qualifier of the dependency or {@code null} if none
+     */
+    Annotation getQualifier() {
+        return qualifier;
+    }
+
+    /**
+     * @return the provider that satisfies the dependency or {@code null} if the
+     *         dependency cannot be satisfied
+     */
+    InjectionProvider getProvider() {
+        return provider;
+    }
+
+    /**
+     * @return {@code true} if the dependency is only provided on demand
+     */
+    boolean isDeferred() {
+        return deferred;
+    }
+
+}
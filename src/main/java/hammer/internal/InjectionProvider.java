@@ -15,6 +15,10 @@
  */
 package hammer.internal;
 
+import java.util.List;
+
+import hammer.api.TypeToken;
+
 /**
  * An {@code InjectionProvider} provides instances of objects typically to serve
  * {@link InjectionRequest}s.
@@ -32,5 +36,21 @@ interface InjectionProvider {
      * @return an object of the appropriate type for this provider
      */
     Object provide(InjectionRequest request, InjectionContext context);
+    
+    /**
+     * @return the type of the objects provided by this provider
+     */
+    TypeToken<?> getType();
+    
+    /**
+     * Resolve the {@link InjectionPoint}s of the dependencies of this provider,
+     * including dependencies that are deferred (such as those injected via a
+     * {@code Provider}, {@code Lazy} or {@code CompletableFuture}) and dependencies
+     * that cannot be satisfied.
+     * 
+     * @param context the context used to resolve the dependencies
+     * @return the injection points of the immediate dependencies of this provider
+     */
+    List<InjectionPoint> getInjectionPoints(InjectionContext context);
 
 }
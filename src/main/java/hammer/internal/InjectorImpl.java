@@ -15,15 +15,26 @@
  */
 package hammer.internal;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.lang.annotation.Annotation;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import javax.inject.Provider;
 
-import hammer.api.Scopes;
+import hammer.api.GraphFormat;
+import hammer.api.Handle;
 import hammer.api.InjectionType;
 import hammer.api.Injector;
+import hammer.api.Key;
 import hammer.api.Loader;
 import hammer.api.TypeToken;
 
@@ -34,21 +45,25 @@ class InjectorImpl implements Injector {
     
     private final InjectionContext context;
     
-    InjectorImpl(Iterable<? extends Loader> loaders) {
-        this.context = new InjectionContext(loaders);
+    InjectorImpl(ContainerImpl.Result result) {
+        this.context = new InjectionContext(result);
     }
     
-    private InjectorImpl(InjectionContext parent, Annotation scope) {
+    private InjectorImpl(InjectionContext parent, Class<? extends Annotation> scope) {
         this.context = new InjectionContext(parent, scope);
     }
     
+    private InjectorImpl(InjectionContext parent, ContainerImpl.Result result) {
+        this.context = new InjectionContext(parent, result);
+    }
+    
     
     
     /** === Implementation of public interface methods === **/    
 
     @Override
     public <T> T getInstance(Class<T> target) {
-        return context.injectionRequest(TypeToken.forClass(target), null);
+        return context.classRequest(target);
     }
     
     @Override
@@ -66,11 +81,71 @@ class InjectorImpl implements Injector {
         return context.providerRequest(target, null);
     }
 
+    @Override
+    public <T> T getInstance(Key<T> key) {
+        return context.injectionRequest(key.getType(), key.getQualifier());
+    }
+
+    @Override
+    public <T> Provider<T> getProvider(Key<T> key) {
+        return context.providerRequest(key.getType(), key.getQualifier());
+    }
+
+    @Override
+    public <T> Optional<T> findInstance(Class<T> target) {
+        Objects.requireNonNull(target, "target cannot be null");
+        return context.optionalRequest(context.findHandle(target));
+    }
+
+    @Override
+    public <T> Optional<T> findInstance(Key<T> key) {
+        Objects.requireNonNull(key, "key cannot be null");
+        return context.optionalRequest(context.findHandle(key));
+    }
+
+    @Override
+    public boolean hasBinding(Class<?> target) {
+        Objects.requireNonNull(target, "target cannot be null");
+        return context.findHandle(target).isBound();
+    }
+
+    @Override
+    public boolean hasBinding(Key<?> key) {
+        Objects.requireNonNull(key, "key cannot be null");
+        return context.findHandle(key).isBound();
+    }
+
+    @Override
+    public <T> Handle<T> resolve(Key<T> key) {
+        Objects.requireNonNull(key, "key cannot be null");
+        return context.resolveHandle(key);
+    }
+
+    @Override
+    public <T> T get(Handle<T> handle) {
+        if (!(handle instanceof ResolvedHandle)) {
+            throw new IllegalArgumentException(
+                    "Handle " + handle + " was not resolved by an injector");
+        }
+        return context.handleRequest((ResolvedHandle<T>) handle);
+    }
+
     @Override
     public Set<Annotation> getActiveScopes() {
         return Collections.unmodifiableSet(context.getActiveScopes());
     }
 
+    @Override
+    public <T> CompletableFuture<T> refresh(Key<T> key) {
+        Objects.requireNonNull(key, "key cannot be null");
+        return context.refresh(key);
+    }
+
+    @Override
+    public void releaseThreadScope() {
+        context.releaseThreadScope();
+    }
+
     @Override
     public void injectMembers(Object target) {
         context.injectMembers(target);
@@ -88,6 +163,40 @@ class InjectorImpl implements Injector {
 
     @Override
     public Injector enterScope(Class<? extends Annotation> scope) {
-        return new InjectorImpl(context, Scopes.scope(scope));
+        Objects.requireNonNull(scope, "scope cannot be null");
+        return new InjectorImpl(context, scope);
+    }
+
+    @Override
+    public void exitScope() {
+        context.exitScope();
+    }
+
+    @Override
+    public Injector createChildInjector(Loader... loaders) {
+        return createChildInjector(Arrays.asList(loaders));
+    }
+
+    @Override
+    public Injector createChildInjector(Iterable<? extends Loader> loaders) {
+        InjectionEvents.Span span = InjectionEvents.EVENTS.beginCreation();
+        Injector injector = new InjectorImpl(context, ContainerImpl.load(loaders));
+        span.end();
+        return injector;
+    }
+
+    @Override
+    public void exportGraph(Appendable out, GraphFormat format) throws IOException {
+        Objects.requireNonNull(out, "out cannot be null");
+        Objects.requireNonNull(format, "format cannot be null");
+        new GraphExporter(context).export(out, format);
+    }
+
+    @Override
+    public void exportGraph(Path file, GraphFormat format) throws IOException {
+        Objects.requireNonNull(file, "file cannot be null");
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            exportGraph(writer, format);
+        }
     }
 }
@@ -15,11 +15,21 @@
  */
 package hammer.internal;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
 
 import hammer.api.Hammer;
 import hammer.api.Injector;
 import hammer.api.Loader;
+import hammer.api.TypeToken;
 
 /**
  * The entry point into the implementation for acquiring Injector instances.
@@ -32,6 +42,61 @@ public class Injectors {
     
     public static Injector createInjector(Hammer.Token token, 
                                           Iterable<? extends Loader> loaders) {
-        return new InjectorImpl(loaders);
+        InjectionEvents.Span span = InjectionEvents.EVENTS.beginCreation();
+        Injector injector = new InjectorImpl(ContainerImpl.load(loaders));
+        span.end();
+        return injector;
+    }
+    
+    public static Injector createInjectorConcurrently(Hammer.Token token,
+                                                      Executor executor,
+                                                      Loader... loaders) {
+        return createInjectorConcurrently(token, executor, Arrays.asList(loaders));
+    }
+    
+    public static Injector createInjectorConcurrently(
+            Hammer.Token token, Executor executor, Iterable<? extends Loader> loaders) {
+        Objects.requireNonNull(executor, "executor cannot be null");
+        InjectionEvents.Span span = InjectionEvents.EVENTS.beginCreation();
+        Injector injector = new InjectorImpl(ContainerImpl.load(loaders, executor));
+        span.end();
+        return injector;
+    }
+    
+    public static void writeSnapshot(Hammer.Token token, Path file, Loader... loaders)
+            throws IOException {
+        writeSnapshot(token, file, Arrays.asList(loaders));
+    }
+    
+    public static void writeSnapshot(Hammer.Token token, Path file,
+                                     Iterable<? extends Loader> loaders)
+            throws IOException {
+        Objects.requireNonNull(file, "file cannot be null");
+        ContainerImpl.Result result = ContainerImpl.load(loaders);
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            Snapshots.write(result, writer);
+        }
+    }
+    
+    public static Injector restoreInjector(Hammer.Token token, Path file,
+                                           Loader... loaders) throws IOException {
+        return restoreInjector(token, file, Arrays.asList(loaders));
+    }
+    
+    public static Injector restoreInjector(Hammer.Token token, Path file,
+                                           Iterable<? extends Loader> loaders)
+            throws IOException {
+        Objects.requireNonNull(file, "file cannot be null");
+        InjectionEvents.Span span = InjectionEvents.EVENTS.beginCreation();
+        ContainerImpl container = new ContainerImpl();
+        Map<TypeToken<?>, Introspector.InjectionProfile> profiles;
+        try (BufferedReader reader =
+                Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            profiles = Snapshots.read(reader, container);
+        }
+        container.preloadInjectionProfiles(profiles);
+        Injector injector = new InjectorImpl(ContainerImpl.load(container, loaders));
+        span.end();
+        return injector;
     }
 }
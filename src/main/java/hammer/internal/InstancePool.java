@@ -0,0 +1,67 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.internal;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded pool of idle instances.  Instances are held in a fixed number of slots
+ * that are claimed and filled with compare-and-set operations, so the pool never
+ * locks and never allocates after it is created.
+ */
+class InstancePool {
+
+    private final AtomicReferenceArray<Object> slots;
+
+    /**
+     * @param capacity the maximum number of idle instances held by the pool
+     */
+    InstancePool(int capacity) {
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Removes an idle instance from the pool.
+     *
+     * @return the instance or {@code null} if the pool is empty
+     */
+    Object acquire() {
+        for (int i = 0; i < slots.length(); i++) {
+            Object instance = slots.get(i);
+            if (instance != null && slots.compareAndSet(i, instance, null)) {
+                return instance;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds an idle instance to the pool.
+     *
+     * @param instance the instance
+     * @return {@code true} if the instance was added or {@code false} if the pool is
+     *         full and the instance should be discarded
+     */
+    boolean release(Object instance) {
+        for (int i = 0; i < slots.length(); i++) {
+            if (slots.get(i) == null && slots.compareAndSet(i, null, instance)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
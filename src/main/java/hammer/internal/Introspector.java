@@ -64,6 +64,32 @@ class Introspector {
         return profile;
     }
     
+    /**
+     * Produces an {@link InjectionProfile} from injectable elements that have already
+     * been resolved, such as those recorded in a snapshot, without introspecting the
+     * type.
+     * 
+     * @param type the type of the profile
+     * @param constructor the injectable constructor
+     * @param members the injectable member fields and methods in injection order
+     * @param statics the injectable static fields and methods in injection order
+     * @return an {@link InjectionProfile} with the given elements
+     */
+    static InjectionProfile createInjectionProfile(TypeToken<?> type,
+                                                   Constructor<?> constructor,
+                                                   List<AccessibleObject> members,
+                                                   List<AccessibleObject> statics) {
+        InjectionProfile profile =
+                new InjectionProfile(type, makeAccessible(constructor));
+        for (AccessibleObject member : members) {
+            profile.addLastMember(makeMemberAccessible(member));
+        }
+        for (AccessibleObject stat : statics) {
+            profile.addLastStatic(makeMemberAccessible(stat));
+        }
+        return profile;
+    }
+    
     /**
      * Convert the collection of {@link InjectionType}s into an {@link AccessProfile} that
      * represents the types of injectable elements to consider during introspection of
@@ -180,6 +206,14 @@ class Introspector {
         return element;
     }
     
+    private static AccessibleObject makeMemberAccessible(AccessibleObject element) {
+        if (!Modifier.isPublic(((Member) element).getModifiers())) {
+            element.setAccessible(true);
+        }
+        
+        return element;
+    }
+    
     private static class MethodSignatures {
         private final List<Method> methods = new ArrayList<>();
         private MethodSignatures() {}
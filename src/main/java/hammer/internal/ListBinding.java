@@ -13,6 +13,7 @@ import hammer.api.TypeToken;
 class ListBinding<V> extends AbstractCollectionBinding<V> implements ListMemberBinder<V> {
     
     private TypeToken<?> listType;
+    private int priority;
     
     ListBinding (TypeToken<V> implementation, Annotation scope) {
         super(implementation, scope);
@@ -22,6 +23,13 @@ class ListBinding<V> extends AbstractCollectionBinding<V> implements ListMemberB
         super(instance, scope);
     }
 
+    @Override
+    public ListMemberBinder<V> withPriority(int priority) {
+        verifyNotBound();
+        this.priority = priority;
+        return this;
+    }
+
     @Override
     public QualifierBinder forElementType(Class<? super V> elementType) {
         return forElementType(TypeToken.forClass(elementType));
@@ -40,4 +48,8 @@ class ListBinding<V> extends AbstractCollectionBinding<V> implements ListMemberB
         
         return new InjectionRequest(listType, getQualifier());
     }
+    
+    int getPriority() {
+        return priority;
+    }
 }
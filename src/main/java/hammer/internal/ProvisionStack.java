@@ -0,0 +1,74 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.internal;
+
+import java.util.Arrays;
+
+/**
+ * The providers of the provisions in progress on a thread, used to detect injection
+ * loops.  Provisions nest, so the providers form a stack that is searched by identity.
+ * The stack is small and reuses its array, so tracking a provision does not allocate
+ * and each thread holds little state between provisions.
+ */
+class ProvisionStack {
+
+    private InjectionProvider[] providers;
+    private int size;
+
+    ProvisionStack() {
+        this.providers = new InjectionProvider[8];
+    }
+
+    /**
+     * @param provider a provider
+     * @return {@code true} if a provision by the given provider is in progress
+     */
+    boolean contains(InjectionProvider provider) {
+        for (int i = 0; i < size; i++) {
+            if (providers[i] == provider) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Records the start of a provision by the given provider.
+     *
+     * @param provider the provider
+     */
+    void push(InjectionProvider provider) {
+        if (size == providers.length) {
+            providers = Arrays.copyOf(providers, size * 2);
+        }
+        providers[size++] = provider;
+    }
+
+    /**
+     * Records the end of the innermost provision.
+     */
+    void pop() {
+        providers[--size] = null;
+    }
+
+    /**
+     * @return the number of provisions in progress
+     */
+    int size() {
+        return size;
+    }
+
+}
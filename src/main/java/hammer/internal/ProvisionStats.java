@@ -0,0 +1,110 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.internal;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import hammer.api.ProvisionListener;
+
+/**
+ * Records the provisions of a single {@link InjectionProvider} of an injector, and
+ * forwards them to the {@code Recorder} the configured {@link ProvisionListener}
+ * returned for the provider.  The recorded values are reported when the injector's
+ * graph is exported.
+ */
+class ProvisionStats implements ProvisionListener.Recorder {
+
+    private final ProvisionListener.Recorder delegate;
+    private final LongAdder count;
+    private final LongAdder totalNanos;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+
+    /**
+     * @param delegate the recorder to forward to
+     */
+    ProvisionStats(ProvisionListener.Recorder delegate) {
+        this.delegate = delegate;
+        this.count = new LongAdder();
+        this.totalNanos = new LongAdder();
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+    }
+
+    @Override
+    public void provisioned(long nanos) {
+        count.increment();
+        totalNanos.add(nanos);
+        delegate.provisioned(nanos);
+    }
+
+    @Override
+    public void scopeHit() {
+        hits.increment();
+        delegate.scopeHit();
+    }
+
+    @Override
+    public void scopeMiss() {
+        misses.increment();
+        delegate.scopeMiss();
+    }
+
+    @Override
+    public void scopeEviction() {
+        evictions.increment();
+        delegate.scopeEviction();
+    }
+
+    /**
+     * @return the number of instances provided
+     */
+    long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return the cumulative time taken to provide the instances in nanoseconds
+     */
+    long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * @return the number of requests served by an existing scoped instance
+     */
+    long getScopeHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of requests that instantiated a new scoped instance
+     */
+    long getScopeMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the number of scoped instances evicted to stay within a bound or
+     *         rebuilt after the garbage collector reclaimed them
+     */
+    long getScopeEvictions() {
+        return evictions.sum();
+    }
+
+}
@@ -0,0 +1,143 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.internal;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import hammer.api.ProvisionTrace;
+import hammer.api.TypeToken;
+
+/**
+ * Implementation of a {@link ProvisionTrace} that is built up by the injecting thread
+ * while the provision is in progress.
+ */
+class ProvisionTraceImpl implements ProvisionTrace {
+
+    private final InjectionProvider provider;
+    private final Annotation qualifier;
+    private final ProvisionTraceImpl parent;
+    private final List<ProvisionTrace> children;
+    private boolean scopeHit;
+    private long nanos;
+
+    /**
+     * @param provider the provider performing the provision
+     * @param qualifier the qualifier of the injection request
+     * @param parent the trace of the enclosing provision or {@code null} if none
+     */
+    ProvisionTraceImpl(InjectionProvider provider, Annotation qualifier,
+                       ProvisionTraceImpl parent) {
+        this.provider = provider;
+        this.qualifier = qualifier;
+        this.parent = parent;
+        this.children = new ArrayList<>();
+    }
+
+    /**
+     * @return the provider performing the provision
+     */
+    InjectionProvider getProvider() {
+        return provider;
+    }
+
+    /**
+     * @return the trace of the enclosing provision or {@code null} if none
+     */
+    ProvisionTraceImpl getParent() {
+        return parent;
+    }
+
+    void setScopeHit(boolean scopeHit) {
+        this.scopeHit = scopeHit;
+    }
+
+    /**
+     * Completes this trace, adding it to the trace of the enclosing provision.
+     *
+     * @param nanos the time taken by the provision
+     */
+    void complete(long nanos) {
+        this.nanos = nanos;
+        if (parent != null) {
+            parent.children.add(this);
+        }
+    }
+
+    @Override
+    public TypeToken<?> getType() {
+        return provider.getType();
+    }
+
+    @Override
+    public Annotation getQualifier() {
+        return qualifier;
+    }
+
+    @Override
+    public String getKind() {
+        return InjectionContext.getKind(provider);
+    }
+
+    @Override
+    public boolean isScopeHit() {
+        return scopeHit;
+    }
+
+    @Override
+    public long getNanos() {
+        return nanos;
+    }
+
+    @Override
+    public long getSelfNanos() {
+        long self = nanos;
+        for (ProvisionTrace child : children) {
+            self -= child.getNanos();
+        }
+        return self;
+    }
+
+    @Override
+    public List<ProvisionTrace> getChildren() {
+        return Collections.unmodifiableList(children);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        append(sb, this, "");
+        return sb.toString();
+    }
+
+    private static void append(StringBuilder sb, ProvisionTrace trace, String indent) {
+        sb.append(indent).append(trace.getType());
+        if (trace.getQualifier() != null) {
+            sb.append(' ').append(trace.getQualifier());
+        }
+        sb.append(" [").append(trace.getKind());
+        if (trace.isScopeHit()) {
+            sb.append(", scope hit");
+        }
+        sb.append(", ").append(trace.getNanos()).append(" ns]\n");
+        for (ProvisionTrace child : trace.getChildren()) {
+            append(sb, child, indent + "  ");
+        }
+    }
+
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.internal;
+
+import java.util.Map;
+
+import hammer.api.Handle;
+import hammer.api.Key;
+
+/**
+ * A {@link Handle} that holds the provider resolved for its key along with the
+ * bindings it was resolved from, so that the provider can be used directly by any
+ * context that shares those bindings.  A handle may also record that its key is not
+ * bound, so that misses can be cached and answered without an exception.  Handles of
+ * keys for wrappers such as {@code Optional}s that are not bound explicitly hold the
+ * handle of the key they wrap instead of a provider.
+ */
+class ResolvedHandle<T> implements Handle<T> {
+
+    private final Key<T> key;
+    private final Map<InjectionRequest, InjectionProvider> bindings;
+    private final InjectionRequest request;
+    private final InjectionProvider provider;
+    private final int depth;
+    private final boolean bound;
+    private final ResolvedHandle<?> wrapped;
+
+    /**
+     * Create a new {@link ResolvedHandle} with the given parameters.
+     *
+     * @param key the resolved key
+     * @param bindings the bindings of the context that resolved the key
+     * @param request the request for the key
+     * @param provider the provider that satisfies the request or {@code null} if the
+     *                 request is satisfied without a provider, such as requests for
+     *                 {@code Provider}s
+     * @param depth the number of fallbacks between the requesting context and the
+     *              context that binds the key
+     * @param bound {@code true} if the key can be satisfied by the bindings
+     * @param wrapped the handle of the key wrapped by the key of this handle or
+     *                {@code null} if the key is not an implicitly bound wrapper
+     */
+    ResolvedHandle(Key<T> key, Map<InjectionRequest, InjectionProvider> bindings,
+                   InjectionRequest request, InjectionProvider provider,
+                   int depth, boolean bound, ResolvedHandle<?> wrapped) {
+        this.key = key;
+        this.bindings = bindings;
+        this.request = request;
+        this.provider = provider;
+        this.depth = depth;
+        this.bound = bound;
+        this.wrapped = wrapped;
+    }
+
+    @Override
+    public Key<T> getKey() {
+        return key;
+    }
+
+    /**
+     * @return the bindings of the context that resolved the key
+     */
+    Map<InjectionRequest, InjectionProvider> getBindings() {
+        return bindings;
+    }
+
+    /**
+     * @return the request for the key
+     */
+    InjectionRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * @return the provider that satisfies the request or {@code null} if none
+     */
+    InjectionProvider getProvider() {
+        return provider;
+    }
+
+    /**
+     * @return the number of fallbacks between the requesting context and the context
+     *         that binds the key
+     */
+    int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @return {@code true} if the key can be satisfied by the bindings
+     */
+    boolean isBound() {
+        return bound;
+    }
+
+    /**
+     * @return the handle of the wrapped key or {@code null} if none
+     */
+    ResolvedHandle<?> getWrapped() {
+        return wrapped;
+    }
+
+    @Override
+    public String toString() {
+        return "Handle " + key;
+    }
+
+}
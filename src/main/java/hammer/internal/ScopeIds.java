@@ -0,0 +1,91 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.internal;
+
+import java.lang.annotation.Annotation;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import hammer.api.Scopes;
+
+/**
+ * Assigns a small integer id to each scope annotation type used by an injector and the
+ * injectors derived from it, so that each scope can be resolved by indexing an array.
+ * Ids are assigned in sequence on first use and never change.  Scopes are identified
+ * by their annotation type, so looking up an id never relies on the equality of
+ * annotation instances.
+ */
+class ScopeIds {
+
+    private final ConcurrentMap<Class<? extends Annotation>, Integer> ids;
+    private final List<Annotation> scopes;
+
+    ScopeIds() {
+        this.ids = new ConcurrentHashMap<>();
+        this.scopes = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Returns the id of the given scope annotation type, assigning one if needed.
+     *
+     * @param scope the scope annotation type
+     * @return the id of the scope
+     * @throws IllegalArgumentException if the annotation type is not annotated with
+     *                                  {@code @Scope}
+     */
+    int getId(Class<? extends Annotation> scope) {
+        Integer id = ids.get(scope);
+        if (id != null) {
+            return id;
+        }
+        return assignId(Scopes.scope(scope));
+    }
+
+    /**
+     * Returns the id of the given scope, assigning one if needed.
+     *
+     * @param scope the scope annotation
+     * @return the id of the scope
+     */
+    int getId(Annotation scope) {
+        Integer id = ids.get(scope.annotationType());
+        if (id != null) {
+            return id;
+        }
+        return assignId(scope);
+    }
+
+    /**
+     * @param id the id of a scope
+     * @return the scope annotation with the given id
+     */
+    Annotation getScope(int id) {
+        return scopes.get(id);
+    }
+
+    private synchronized int assignId(Annotation scope) {
+        Integer id = ids.get(scope.annotationType());
+        if (id == null) {
+            id = scopes.size();
+            scopes.add(scope);
+            ids.put(scope.annotationType(), id);
+        }
+        return id;
+    }
+
+}
@@ -0,0 +1,285 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import hammer.api.InjectionException;
+import hammer.api.InstantiationListener;
+
+/**
+ * Eagerly instantiates a collection of singleton scoped {@link InjectionProvider}s.
+ * The dependency graph between the singletons is computed up front so that each
+ * singleton is only scheduled once all of the singletons it depends on have been
+ * instantiated, allowing independent singletons to be instantiated in parallel.
+ * <p>
+ * When run in blocking mode, instantiation stops at the first failure and the failure
+ * is rethrown from {@link #await()}.  Otherwise, each singleton is attempted
+ * independently and any failure is only reported through the singleton's future.
+ * Failures of the {@link InstantiationListener} are not instantiation failures, and
+ * are reported to the uncaught exception handler of the notifying thread instead.
+ */
+class SingletonInitializer {
+
+    private final InjectionContext context;
+    private final Executor executor;
+    private final InstantiationListener listener;
+    private final boolean blocking;
+    private final Map<InjectionProvider, Node> nodes;
+    private final CountDownLatch complete;
+    private final AtomicReference<Throwable> failure;
+
+    /**
+     * Prepare to instantiate the given singletons.
+     *
+     * @param context the context to instantiate the singletons in
+     * @param singletons the singleton providers
+     * @param executor the executor used to perform the instantiations
+     * @param listener the listener to notify of each instantiation or {@code null}
+     * @param blocking {@code true} if instantiation stops at the first failure
+     * @throws IllegalStateException if the singletons have a circular dependency
+     */
+    SingletonInitializer(InjectionContext context,
+                         Collection<InjectionProvider> singletons,
+                         Executor executor,
+                         InstantiationListener listener,
+                         boolean blocking) {
+        this.context = context;
+        this.executor = executor;
+        this.listener = listener;
+        this.blocking = blocking;
+        this.nodes = new HashMap<>();
+        this.complete = new CountDownLatch(singletons.size());
+        this.failure = new AtomicReference<>();
+
+        for (InjectionProvider singleton : singletons) {
+            nodes.put(singleton, new Node(singleton));
+        }
+        for (Node node : nodes.values()) {
+            Set<InjectionProvider> visited = new HashSet<>();
+            addDependencies(node, node.provider, visited);
+        }
+        verifyNoLoops();
+    }
+
+    /**
+     * @return a future for each singleton that is completed once the singleton has
+     *         been instantiated
+     */
+    Map<InjectionProvider, CompletableFuture<Object>> getFutures() {
+        Map<InjectionProvider, CompletableFuture<Object>> futures = new HashMap<>();
+        for (Node node : nodes.values()) {
+            futures.put(node.provider, node.future);
+        }
+        return futures;
+    }
+
+    /**
+     * Schedule the instantiation of each singleton that has no dependencies on other
+     * singletons.  The remaining singletons are scheduled as their dependencies are
+     * instantiated.
+     */
+    void start() {
+        // collect the initial nodes before scheduling any since a scheduled node may
+        // complete and schedule its dependents before this loop finishes
+        List<Node> ready = new ArrayList<>();
+        for (Node node : nodes.values()) {
+            if (node.remaining.get() == 0) {
+                ready.add(node);
+            }
+        }
+        for (Node node : ready) {
+            schedule(node);
+        }
+    }
+
+    /**
+     * Block until all of the singletons have been instantiated.
+     *
+     * @throws InjectionException if interrupted while waiting
+     */
+    void await() {
+        try {
+            complete.await();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new InjectionException(
+                    "Interrupted while instantiating singletons", ie);
+        }
+
+        Throwable t = failure.get();
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        } else if (t instanceof Error) {
+            throw (Error) t;
+        }
+    }
+
+    /**
+     * Walks the dependency graph from the given provider through any non-singleton
+     * providers, recording each singleton that is reached as a dependency of the node.
+     */
+    private void addDependency(Node node, InjectionProvider provider,
+                               Set<InjectionProvider> visited) {
+        if (!visited.add(provider)) {
+            return;
+        }
+
+        Node dependency = nodes.get(provider);
+        if (dependency != null) {
+            if (dependency != node) {
+                node.remaining.incrementAndGet();
+                dependency.dependents.add(node);
+            }
+            return;
+        }
+
+        addDependencies(node, provider, visited);
+    }
+    
+    /**
+     * Adds the dependencies of each immediate injection point of the given provider
+     * that is neither deferred nor unsatisfied.
+     */
+    private void addDependencies(Node node, InjectionProvider provider,
+                                 Set<InjectionProvider> visited) {
+        for (InjectionPoint point : provider.getInjectionPoints(context)) {
+            if (!point.isDeferred() && point.getProvider() != null) {
+                addDependency(node, point.getProvider(), visited);
+            }
+        }
+    }
+
+    private void verifyNoLoops() {
+        Map<Node, Integer> remaining = new HashMap<>();
+        List<Node> ready = new ArrayList<>();
+        for (Node node : nodes.values()) {
+            remaining.put(node, node.remaining.get());
+            if (node.remaining.get() == 0) {
+                ready.add(node);
+            }
+        }
+
+        int visited = 0;
+        while (!ready.isEmpty()) {
+            Node node = ready.remove(ready.size() - 1);
+            visited++;
+            for (Node dependent : node.dependents) {
+                int count = remaining.get(dependent) - 1;
+                remaining.put(dependent, count);
+                if (count == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+
+        if (visited != nodes.size()) {
+            for (Map.Entry<Node, Integer> entry : remaining.entrySet()) {
+                if (entry.getValue() > 0) {
+                    throw new IllegalStateException(
+                            "Loop detected while attempting to instantiate singleton "
+                            + "of type " + entry.getKey().provider.getType());
+                }
+            }
+        }
+    }
+
+    private void schedule(final Node node) {
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        if (!blocking || failure.get() == null) {
+                            instantiate(node);
+                        }
+                    } catch (RuntimeException | Error e) {
+                        failure.compareAndSet(null, e);
+                        node.future.completeExceptionally(e);
+                    } finally {
+                        finish(node);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            // the executor rejected the task
+            failure.compareAndSet(null, e);
+            node.future.completeExceptionally(e);
+            finish(node);
+        }
+    }
+
+    private void finish(Node node) {
+        complete.countDown();
+        for (Node dependent : node.dependents) {
+            if (dependent.remaining.decrementAndGet() == 0) {
+                schedule(dependent);
+            }
+        }
+    }
+
+    private void instantiate(Node node) {
+        long start = System.nanoTime();
+        Object value = context.safeProvide(
+                node.provider, new InjectionRequest(node.provider.getType(), null));
+        long elapsed = System.nanoTime() - start;
+        node.future.complete(value);
+
+        if (listener != null) {
+            notifyListener(node, elapsed);
+        }
+    }
+
+    /**
+     * Notifies the listener of an instantiated singleton.  The singleton is already
+     * cached and its future completed, so a failing listener does not fail the
+     * instantiation and is reported to the uncaught exception handler of the thread.
+     */
+    private void notifyListener(Node node, long elapsed) {
+        try {
+            listener.instantiated(node.provider.getType(), elapsed);
+        } catch (RuntimeException | Error e) {
+            Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        }
+    }
+
+    private static class Node {
+        private final InjectionProvider provider;
+        private final AtomicInteger remaining;
+        private final List<Node> dependents;
+        private final CompletableFuture<Object> future;
+
+        private Node(InjectionProvider provider) {
+            this.provider = provider;
+            this.remaining = new AtomicInteger();
+            this.dependents = new ArrayList<>();
+            this.future = new CompletableFuture<>();
+        }
+    }
+
+}
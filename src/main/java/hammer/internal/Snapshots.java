@@ -0,0 +1,655 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.internal;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import hammer.api.Container;
+import hammer.api.InjectionType;
+import hammer.api.Qualifiers;
+import hammer.api.Scopes;
+import hammer.api.TypeToken;
+import javax.inject.Named;
+
+/**
+ * Writes and reads snapshots of a loaded container.  A snapshot records the bindings,
+ * qualifiers, scopes, injection types and static injections of a container together
+ * with the resolved injectable elements of each bound implementation, so that a
+ * container can be restored without calling its loaders or introspecting its types.
+ * <p>
+ * The pooling, refresh and multiton capacity configuration of the container is
+ * recorded as well, but eviction listeners are not.
+ * <p>
+ * A snapshot is a text file of tab separated lines.  Types are recorded by name, so a
+ * snapshot must be restored with the same classes with which it was written.
+ * Instance bindings, executors and listeners cannot be recorded and must instead be
+ * configured when the snapshot is restored.
+ */
+class Snapshots {
+
+    private static final String HEADER = "hammer-snapshot";
+    private static final String VERSION = "1";
+    private static final String ABSENT = "-";
+
+    private static final Map<String, Class<?>> PRIMITIVES = new HashMap<>();
+    static {
+        for (Class<?> c : Arrays.<Class<?>>asList(
+                boolean.class, byte.class, char.class, short.class, int.class,
+                long.class, float.class, double.class, void.class)) {
+            PRIMITIVES.put(c.getName(), c);
+        }
+    }
+
+    private Snapshots() {}
+
+    /**
+     * Writes a snapshot of the given loaded container.  Each bound implementation and
+     * each class configured for static injection is introspected, so a snapshot can
+     * only be written if all of them are injectable.
+     *
+     * @param result the loaded container
+     * @param out the destination of the snapshot
+     * @throws IOException if the snapshot cannot be written
+     * @throws IllegalArgumentException if the container has instance bindings or
+     *                                  bindings that cannot be recorded
+     */
+    static void write(ContainerImpl.Result result, Appendable out) throws IOException {
+        line(out, HEADER, VERSION);
+
+        if (result.isInjectionTypesReset()) {
+            List<String> types = new ArrayList<>();
+            types.add("injections");
+            for (InjectionType type : result.getInjectionTypes()) {
+                types.add(type.name());
+            }
+            line(out, types.toArray(new String[types.size()]));
+        }
+
+        List<String> scopes = new ArrayList<>();
+        scopes.add("scopes");
+        for (Annotation scope : result.getActiveScopes()) {
+            scopes.add(scope.annotationType().getName());
+        }
+        line(out, scopes.toArray(new String[scopes.size()]));
+
+        if (result.getPoolCapacity() != 0) {
+            line(out, "pool-capacity", Integer.toString(result.getPoolCapacity()));
+        }
+        if (result.getRefreshIntervalNanos() != 0) {
+            line(out, "refresh-interval",
+                 Long.toString(result.getRefreshIntervalNanos()));
+        }
+        for (Map.Entry<Class<?>, ContainerImpl.MultitonCapacity> capacity
+                : result.getMultitonCapacities().entrySet()) {
+            line(out, "multiton-capacity", capacity.getKey().getName(),
+                 Integer.toString(capacity.getValue().getCapacity()));
+        }
+
+        Set<TypeToken<?>> profiled = new LinkedHashSet<>();
+        for (Class<?> type : result.getStaticInjectionsEnabled()) {
+            line(out, "static-injection", type.getName());
+            profiled.add(TypeToken.forClass(type));
+        }
+
+        for (StrictBinding<?> binding : result.getStrictBindings()) {
+            List<String> fields = new ArrayList<>();
+            fields.add("strict");
+            fields.add(formatType(getImplementation(binding)));
+            fields.add(formatQualifier(binding.getQualifier()));
+            for (InjectionRequest request : binding.getInjectionRequests()) {
+                fields.add(formatType(request.getType()));
+            }
+            line(out, fields.toArray(new String[fields.size()]));
+            profiled.add(binding.getImplementation());
+        }
+        for (MapBinding<?> binding : result.getMapBindings()) {
+            line(out, "map", formatType(getImplementation(binding)),
+                 formatScope(binding.getScope()),
+                 formatQualifier(binding.getQualifier()),
+                 formatType(binding.getMapInjectionRequest().getType()),
+                 formatKey(binding.getKey()));
+            profiled.add(binding.getImplementation());
+        }
+        for (ListBinding<?> binding : result.getListBindings()) {
+            line(out, "list", formatType(getImplementation(binding)),
+                 formatScope(binding.getScope()),
+                 formatQualifier(binding.getQualifier()),
+                 formatType(binding.getListInjectionRequest().getType()),
+                 Integer.toString(binding.getPriority()));
+            profiled.add(binding.getImplementation());
+        }
+        for (SetBinding<?> binding : result.getSetBindings()) {
+            line(out, "set", formatType(getImplementation(binding)),
+                 formatScope(binding.getScope()),
+                 formatQualifier(binding.getQualifier()),
+                 formatType(binding.getSetInjectionRequest().getType()));
+            profiled.add(binding.getImplementation());
+        }
+
+        Introspector.AccessProfile accessProfile =
+                Introspector.getAccessProfile(result.getInjectionTypes());
+        for (TypeToken<?> type : profiled) {
+            writeProfile(out, Introspector.getInjectionProfile(type, accessProfile));
+        }
+    }
+
+    /**
+     * Reads a snapshot, replaying the recorded bindings and configuration on the given
+     * container.
+     *
+     * @param in the source of the snapshot
+     * @param container the container on which to replay the snapshot
+     * @return the injection profiles recorded in the snapshot
+     * @throws IOException if the snapshot cannot be read
+     * @throws IllegalArgumentException if the snapshot is malformed
+     * @throws IllegalStateException if the snapshot refers to classes or members that
+     *                               no longer exist
+     */
+    static Map<TypeToken<?>, Introspector.InjectionProfile> read(
+            BufferedReader in, Container container) throws IOException {
+        String line = in.readLine();
+        if (line == null || !Arrays.asList(HEADER, VERSION).equals(split(line))) {
+            throw new IllegalArgumentException("Not a version " + VERSION
+                                               + " hammer snapshot");
+        }
+
+        Map<TypeToken<?>, Introspector.InjectionProfile> profiles = new HashMap<>();
+        ProfileReader profile = null;
+        while ((line = in.readLine()) != null) {
+            List<String> fields = split(line);
+            String kind = fields.get(0);
+            switch (kind) {
+                case "injections":
+                    List<InjectionType> types = new ArrayList<>();
+                    for (String type : fields.subList(1, fields.size())) {
+                        types.add(InjectionType.valueOf(type));
+                    }
+                    container.allowInjections(
+                            types.toArray(new InjectionType[types.size()]));
+                    break;
+                case "scopes":
+                    readScopes(fields, container);
+                    break;
+                case "pool-capacity":
+                    container.configurePoolCapacity(Integer.parseInt(fields.get(1)));
+                    break;
+                case "refresh-interval":
+                    container.configureRefreshInterval(Long.parseLong(fields.get(1)),
+                                                       TimeUnit.NANOSECONDS);
+                    break;
+                case "multiton-capacity":
+                    container.configureMultitonCapacity(loadClass(fields.get(1)),
+                                                        Integer.parseInt(fields.get(2)),
+                                                        null);
+                    break;
+                case "static-injection":
+                    container.configureStaticInjections(loadClass(fields.get(1)));
+                    break;
+                case "strict":
+                    readStrict(fields, container);
+                    break;
+                case "map":
+                    readMap(fields, container);
+                    break;
+                case "list":
+                    readList(fields, container);
+                    break;
+                case "set":
+                    readSet(fields, container);
+                    break;
+                case "profile":
+                    if (profile != null) {
+                        profile.complete(profiles);
+                    }
+                    profile = new ProfileReader(fields);
+                    break;
+                case "member":
+                case "static":
+                    if (profile == null) {
+                        throw new IllegalArgumentException(
+                                "Injectable element outside of profile : " + line);
+                    }
+                    profile.add(fields);
+                    break;
+                default:
+                    throw new IllegalArgumentException(
+                            "Unknown snapshot entry : " + line);
+            }
+        }
+        if (profile != null) {
+            profile.complete(profiles);
+        }
+        return profiles;
+    }
+
+
+    /** === Writing === **/
+
+    private static TypeToken<?> getImplementation(AbstractBinding<?> binding) {
+        if (binding.getInstance() != null) {
+            throw new IllegalArgumentException(
+                    "Instance binding for type " + binding.getInstance().getClass()
+                    + " cannot be written to a snapshot, bind it when restoring");
+        }
+        return binding.getImplementation();
+    }
+
+    private static void writeProfile(Appendable out,
+                                     Introspector.InjectionProfile profile)
+            throws IOException {
+        List<String> fields = new ArrayList<>();
+        fields.add("profile");
+        fields.add(formatType(profile.getType()));
+        for (Class<?> param :
+                profile.getInjectableConstructor().getParameterTypes()) {
+            fields.add(param.getName());
+        }
+        line(out, fields.toArray(new String[fields.size()]));
+
+        for (AccessibleObject element : profile.getInjectableMembers()) {
+            writeElement(out, "member", element);
+        }
+        for (AccessibleObject element : profile.getInjectableStatics()) {
+            writeElement(out, "static", element);
+        }
+    }
+
+    private static void writeElement(Appendable out, String kind,
+                                     AccessibleObject element) throws IOException {
+        List<String> fields = new ArrayList<>();
+        fields.add(kind);
+        if (element instanceof Field) {
+            Field field = (Field) element;
+            fields.add("field");
+            fields.add(field.getDeclaringClass().getName());
+            fields.add(field.getName());
+        } else {
+            Method method = (Method) element;
+            fields.add("method");
+            fields.add(method.getDeclaringClass().getName());
+            fields.add(method.getName());
+            for (Class<?> param : method.getParameterTypes()) {
+                fields.add(param.getName());
+            }
+        }
+        line(out, fields.toArray(new String[fields.size()]));
+    }
+
+    private static String formatType(TypeToken<?> type) {
+        StringBuilder builder = new StringBuilder();
+        formatType(builder, type.getType());
+        return builder.toString();
+    }
+
+    private static void formatType(StringBuilder builder, Type type) {
+        if (type instanceof Class) {
+            builder.append(((Class<?>) type).getName());
+        } else if (type instanceof ParameterizedType) {
+            ParameterizedType pt = (ParameterizedType) type;
+            formatType(builder, pt.getRawType());
+            builder.append('<');
+            Type[] args = pt.getActualTypeArguments();
+            for (int i = 0; i < args.length; i++) {
+                if (i > 0) {
+                    builder.append(',');
+                }
+                formatType(builder, args[i]);
+            }
+            builder.append('>');
+        } else {
+            throw new IllegalArgumentException(
+                    "Type " + type + " cannot be written to a snapshot");
+        }
+    }
+
+    private static String formatScope(Annotation scope) {
+        return scope == null ? ABSENT : scope.annotationType().getName();
+    }
+
+    private static String formatQualifier(Annotation qualifier) {
+        if (qualifier == null) {
+            return ABSENT;
+        } else if (qualifier instanceof Named) {
+            return "@" + Named.class.getName() + "=" + ((Named) qualifier).value();
+        } else if (qualifier.annotationType().getDeclaredMethods().length == 0) {
+            return "@" + qualifier.annotationType().getName();
+        }
+        throw new IllegalArgumentException(
+                "Qualifier " + qualifier + " cannot be written to a snapshot, only"
+                + " @Named and qualifiers without elements are supported");
+    }
+
+    private static String formatKey(Object key) {
+        if (key == null) {
+            return ABSENT;
+        } else if (key instanceof String) {
+            return "string:" + key;
+        } else if (key instanceof Integer) {
+            return "int:" + key;
+        } else if (key instanceof Long) {
+            return "long:" + key;
+        } else if (key instanceof Short) {
+            return "short:" + key;
+        } else if (key instanceof Byte) {
+            return "byte:" + key;
+        } else if (key instanceof Character) {
+            return "char:" + key;
+        } else if (key instanceof Boolean) {
+            return "boolean:" + key;
+        } else if (key instanceof Enum) {
+            Enum<?> e = (Enum<?>) key;
+            return "enum:" + e.getDeclaringClass().getName() + ":" + e.name();
+        } else if (key instanceof Class) {
+            return "class:" + ((Class<?>) key).getName();
+        }
+        throw new IllegalArgumentException(
+                "Map key " + key + " of type " + key.getClass()
+                + " cannot be written to a snapshot");
+    }
+
+    private static void line(Appendable out, String... fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                out.append('\t');
+            }
+            String field = fields[i];
+            for (int j = 0; j < field.length(); j++) {
+                char c = field.charAt(j);
+                switch (c) {
+                    case '\\': out.append("\\\\"); break;
+                    case '\t': out.append("\\t"); break;
+                    case '\n': out.append("\\n"); break;
+                    case '\r': out.append("\\r"); break;
+                    default: out.append(c);
+                }
+            }
+        }
+        out.append('\n');
+    }
+
+
+    /** === Reading === **/
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void readScopes(List<String> fields, Container container) {
+        Class<? extends Annotation>[] scopes = new Class[fields.size() - 1];
+        for (int i = 0; i < scopes.length; i++) {
+            scopes[i] = loadClass(fields.get(i + 1)).asSubclass(Annotation.class);
+        }
+        container.activateScopes(scopes);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void readStrict(List<String> fields, Container container) {
+        TypeToken[] types = new TypeToken[fields.size() - 3];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = parseType(fields.get(i + 3));
+        }
+        Container.QualifierBinder binder = container
+                .addImplType(parseType(fields.get(1)))
+                .asStrictBinding()
+                .forSpecificTypes(types);
+        qualify(binder, fields.get(2));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void readMap(List<String> fields, Container container) {
+        Type[] args = typeArguments(parseType(fields.get(4)));
+        Container.QualifierBinder binder = container
+                .addImplType(parseType(fields.get(1)))
+                .asMapMemberBinding(parseScope(fields.get(2)))
+                .forMapType((TypeToken) TypeToken.forType(args[0]),
+                            (TypeToken) TypeToken.forType(args[1]))
+                .withKey(parseKey(fields.get(5)));
+        qualify(binder, fields.get(3));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void readList(List<String> fields, Container container) {
+        Type[] args = typeArguments(parseType(fields.get(4)));
+        Container.QualifierBinder binder = container
+                .addImplType(parseType(fields.get(1)))
+                .asListMemberBinding(parseScope(fields.get(2)))
+                .withPriority(Integer.parseInt(fields.get(5)))
+                .forElementType((TypeToken) TypeToken.forType(args[0]));
+        qualify(binder, fields.get(3));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void readSet(List<String> fields, Container container) {
+        Type[] args = typeArguments(parseType(fields.get(4)));
+        Container.QualifierBinder binder = container
+                .addImplType(parseType(fields.get(1)))
+                .asSetMemberBinding(parseScope(fields.get(2)))
+                .forElementType((TypeToken) TypeToken.forType(args[0]));
+        qualify(binder, fields.get(3));
+    }
+
+    private static void qualify(Container.QualifierBinder binder, String qualifier) {
+        if (ABSENT.equals(qualifier)) {
+            return;
+        }
+
+        String name = qualifier.substring(1);
+        String prefix = Named.class.getName() + "=";
+        if (name.startsWith(prefix)) {
+            binder.whenQualifiedWith(Qualifiers.named(name.substring(prefix.length())));
+        } else {
+            binder.whenQualifiedWith(
+                    Qualifiers.qualifier(loadClass(name).asSubclass(Annotation.class)));
+        }
+    }
+
+    private static Annotation parseScope(String scope) {
+        if (ABSENT.equals(scope)) {
+            return null;
+        }
+        return Scopes.scope(loadClass(scope).asSubclass(Annotation.class));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object parseKey(String key) {
+        if (ABSENT.equals(key)) {
+            return null;
+        }
+
+        int separator = key.indexOf(':');
+        String kind = key.substring(0, separator);
+        String value = key.substring(separator + 1);
+        switch (kind) {
+            case "string": return value;
+            case "int": return Integer.valueOf(value);
+            case "long": return Long.valueOf(value);
+            case "short": return Short.valueOf(value);
+            case "byte": return Byte.valueOf(value);
+            case "char": return value.charAt(0);
+            case "boolean": return Boolean.valueOf(value);
+            case "enum":
+                int name = value.lastIndexOf(':');
+                Class enumType = loadClass(value.substring(0, name));
+                return Enum.valueOf(enumType, value.substring(name + 1));
+            case "class": return loadClass(value);
+            default:
+                throw new IllegalArgumentException("Unknown map key : " + key);
+        }
+    }
+
+    private static Type[] typeArguments(TypeToken<?> type) {
+        return ((ParameterizedType) type.getType()).getActualTypeArguments();
+    }
+
+    private static TypeToken<?> parseType(String type) {
+        TypeParser parser = new TypeParser(type);
+        Type parsed = parser.parse();
+        if (!parser.isComplete()) {
+            throw new IllegalArgumentException("Malformed type : " + type);
+        }
+        return TypeToken.forType(parsed);
+    }
+
+    private static Class<?> loadClass(String name) {
+        Class<?> primitive = PRIMITIVES.get(name);
+        if (primitive != null) {
+            return primitive;
+        }
+
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        if (loader == null) {
+            loader = Snapshots.class.getClassLoader();
+        }
+        try {
+            return Class.forName(name, false, loader);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(
+                    "Snapshot refers to missing class " + name, e);
+        }
+    }
+
+    private static Class<?>[] loadClasses(List<String> names) {
+        Class<?>[] classes = new Class<?>[names.size()];
+        for (int i = 0; i < classes.length; i++) {
+            classes[i] = loadClass(names.get(i));
+        }
+        return classes;
+    }
+
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\t') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\\' && i + 1 < line.length()) {
+                char escaped = line.charAt(++i);
+                switch (escaped) {
+                    case 't': field.append('\t'); break;
+                    case 'n': field.append('\n'); break;
+                    case 'r': field.append('\r'); break;
+                    default: field.append(escaped);
+                }
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Parses types written as {@code raw<arg,arg>} where each argument is itself such
+     * a type.
+     */
+    private static class TypeParser {
+        private final String type;
+        private int position;
+
+        private TypeParser(String type) {
+            this.type = type;
+        }
+
+        private Type parse() {
+            int start = position;
+            while (position < type.length()
+                   && "<,>".indexOf(type.charAt(position)) < 0) {
+                position++;
+            }
+            Class<?> raw = loadClass(type.substring(start, position));
+            if (position == type.length() || type.charAt(position) != '<') {
+                return raw;
+            }
+
+            List<Type> args = new ArrayList<>();
+            do {
+                position++;
+                args.add(parse());
+            } while (position < type.length() && type.charAt(position) == ',');
+            if (position == type.length() || type.charAt(position) != '>') {
+                throw new IllegalArgumentException("Malformed type : " + type);
+            }
+            position++;
+            return CollectionTypes.parameterizedType(
+                    raw, args.toArray(new Type[args.size()])).getType();
+        }
+
+        private boolean isComplete() {
+            return position == type.length();
+        }
+    }
+
+    /**
+     * Resolves the injectable elements of a single recorded profile.
+     */
+    private static class ProfileReader {
+        private final TypeToken<?> type;
+        private final Constructor<?> constructor;
+        private final List<AccessibleObject> members;
+        private final List<AccessibleObject> statics;
+
+        private ProfileReader(List<String> fields) {
+            this.type = parseType(fields.get(1));
+            Class<?>[] params = loadClasses(fields.subList(2, fields.size()));
+            try {
+                this.constructor = type.getRawClass().getDeclaredConstructor(params);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(
+                        "Snapshot refers to missing constructor of " + type, e);
+            }
+            this.members = new ArrayList<>();
+            this.statics = new ArrayList<>();
+        }
+
+        private void add(List<String> fields) {
+            List<AccessibleObject> elements =
+                    "member".equals(fields.get(0)) ? members : statics;
+            Class<?> declaring = loadClass(fields.get(2));
+            String name = fields.get(3);
+            try {
+                if ("field".equals(fields.get(1))) {
+                    elements.add(declaring.getDeclaredField(name));
+                } else {
+                    elements.add(declaring.getDeclaredMethod(
+                            name, loadClasses(fields.subList(4, fields.size()))));
+                }
+            } catch (NoSuchFieldException | NoSuchMethodException e) {
+                throw new IllegalStateException("Snapshot refers to missing member "
+                                                + name + " of " + declaring, e);
+            }
+        }
+
+        private void complete(Map<TypeToken<?>, Introspector.InjectionProfile> profiles) {
+            profiles.put(type, Introspector.createInjectionProfile(
+                    type, constructor, members, statics));
+        }
+    }
+}
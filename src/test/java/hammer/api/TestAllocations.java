@@ -0,0 +1,320 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.api;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Guards against regressions in the number of bytes allocated per injection.  Each
+ * test measures the average bytes allocated by the current thread per operation
+ * after warming up, and fails if it exceeds a ceiling.  The ceilings are set with
+ * some headroom above the measured values so that they only fail when a change
+ * introduces additional garbage on the injection path, and each measurement is
+ * repeated a few times before failing so that a deoptimization during a round does
+ * not fail the test.  If a change reduces allocation, lower the ceilings accordingly.
+ * <p>
+ * Operations that measure no allocation at all only do so once the optimizing
+ * compiler has eliminated their temporary objects by escape analysis, so those tests
+ * are skipped if the JVM does not compile with escape analysis.
+ */
+public class TestAllocations {
+    
+    private static final int WARMUP = 20000;
+    private static final int ITERATIONS = 20000;
+    private static final int ROUNDS = 3;
+    // the ceiling of the operations that do not allocate once compiled, which leaves
+    // room for stray allocations but not for a request object per operation
+    private static final int ALLOCATION_FREE_CEILING = 32;
+    
+    private static com.sun.management.ThreadMXBean threadBean;
+    private static boolean escapeAnalysis;
+    
+    private static final Loader LOADER = new Loader() {
+        @Override
+        public void load(Container container) {
+            container.addImplType(Unscoped.class).asStrictBinding().forItself();
+            container.addImplType(SingletonType.class).asStrictBinding().forItself();
+            container.addImplType(MultitonType.class).asStrictBinding().forItself()
+                     .whenQualifiedWith(Qualifiers.named("one"));
+            container.addImplType(MultitonHolder.class).asStrictBinding().forItself();
+            container.addImplType(Dependent.class).asStrictBinding().forItself();
+            container.addImplType(MemberTarget.class).asStrictBinding().forItself();
+            container.addImplType(ThreadScopedType.class).asStrictBinding().forItself();
+            container.addImplType(Unscoped.class)
+                     .asListMemberBinding()
+                     .forElementType(Unscoped.class);
+            container.addImplType(SingletonType.class)
+                     .asListMemberBinding()
+                     .forElementType(Unscoped.class);
+        }
+    };
+    
+    @BeforeClass
+    public static void setup() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        threadBean = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        escapeAnalysis = isEscapeAnalysisEnabled();
+    }
+    
+    /**
+     * Returns {@code true} if the JVM compiles hot code with the HotSpot optimizing
+     * compiler and escape analysis, which is unknown for other JVMs.
+     */
+    private static boolean isEscapeAnalysisEnabled() {
+        com.sun.management.HotSpotDiagnosticMXBean diagnostic =
+                ManagementFactory.getPlatformMXBean(
+                        com.sun.management.HotSpotDiagnosticMXBean.class);
+        if (diagnostic == null) {
+            return false;
+        }
+        try {
+            return Boolean.parseBoolean(
+                           diagnostic.getVMOption("UseCompiler").getValue())
+                   && Boolean.parseBoolean(
+                           diagnostic.getVMOption("DoEscapeAnalysis").getValue())
+                   && (!Boolean.parseBoolean(
+                           diagnostic.getVMOption("TieredCompilation").getValue())
+                       || Integer.parseInt(
+                           diagnostic.getVMOption("TieredStopAtLevel").getValue()) >= 4);
+        } catch (IllegalArgumentException e) {
+            // the option does not exist, such as with another compiler
+            return false;
+        }
+    }
+    
+    @Test
+    public void testUnscoped() throws Exception {
+        final Injector injector = Hammer.createInjector(LOADER);
+        assertAllocations("unscoped", 2048, new Runnable() {
+            @Override
+            public void run() {
+                injector.getInstance(Unscoped.class);
+            }
+        });
+    }
+    
+    @Test
+    public void testSingleton() throws Exception {
+        final Injector injector = Hammer.createInjector(LOADER);
+        assertAllocationFree("singleton", new Runnable() {
+            @Override
+            public void run() {
+                injector.getInstance(SingletonType.class);
+            }
+        });
+    }
+    
+    @Test
+    public void testMultiton() throws Exception {
+        final Injector injector = Hammer.createInjector(LOADER);
+        assertAllocations("multiton", 3072, new Runnable() {
+            @Override
+            public void run() {
+                injector.getInstance(MultitonHolder.class);
+            }
+        });
+    }
+    
+    @Test
+    public void testConstructorDependencies() throws Exception {
+        final Injector injector = Hammer.createInjector(LOADER);
+        assertAllocations("constructor", 7680, new Runnable() {
+            @Override
+            public void run() {
+                injector.getInstance(Dependent.class);
+            }
+        });
+    }
+    
+    @Test
+    public void testMemberDependencies() throws Exception {
+        final Injector injector = Hammer.createInjector(LOADER);
+        assertAllocations("members", 7680, new Runnable() {
+            @Override
+            public void run() {
+                injector.getInstance(MemberTarget.class);
+            }
+        });
+    }
+    
+    @Test
+    public void testProvider() throws Exception {
+        final Injector injector = Hammer.createInjector(LOADER);
+        final Provider<Unscoped> provider = injector.getProvider(Unscoped.class);
+        assertAllocations("provider", 2048, new Runnable() {
+            @Override
+            public void run() {
+                provider.get();
+            }
+        });
+    }
+    
+    @Test
+    public void testList() throws Exception {
+        final Injector injector = Hammer.createInjector(LOADER);
+        final TypeToken<List<Unscoped>> type = new TypeToken<List<Unscoped>>() {};
+        assertAllocations("list", 3072, new Runnable() {
+            @Override
+            public void run() {
+                injector.getInstance(type);
+            }
+        });
+    }
+    
+    @Test
+    public void testEnterScope() throws Exception {
+        final Injector injector = Hammer.createInjector(LOADER);
+        assertAllocations("enterScope", 256, new Runnable() {
+            @Override
+            public void run() {
+                injector.enterScope(Singleton.class);
+            }
+        });
+    }
+    
+    @Test
+    public void testHandle() throws Exception {
+        final Injector injector = Hammer.createInjector(LOADER);
+        final Handle<SingletonType> handle = injector.resolve(
+                Key.forClass(SingletonType.class));
+        assertAllocationFree("handle", new Runnable() {
+            @Override
+            public void run() {
+                injector.get(handle);
+            }
+        });
+    }
+    
+    @Test
+    public void testMissingBinding() throws Exception {
+        final Injector injector = Hammer.createInjector(LOADER);
+        assertAllocationFree("missing", new Runnable() {
+            @Override
+            public void run() {
+                if (injector.findInstance(String.class).isPresent()) {
+                    throw new AssertionError();
+                }
+            }
+        });
+    }
+    
+    @Test
+    public void testThreadScoped() throws Exception {
+        final Injector injector = Hammer.createInjector(LOADER);
+        assertAllocationFree("thread", new Runnable() {
+            @Override
+            public void run() {
+                injector.getInstance(ThreadScopedType.class);
+            }
+        });
+    }
+    
+    @Test
+    public void testRefreshPending() throws Exception {
+        final Injector injector = Hammer.createInjector(new Loader() {
+            @Override
+            public void load(Container container) {
+                // never run the rebuild so that every request finds it pending
+                container.configureAsyncSingletons(new Executor() {
+                    @Override
+                    public void execute(Runnable command) {
+                    }
+                });
+                container.configureRefreshInterval(1, TimeUnit.NANOSECONDS);
+                container.addImplType(RefreshableType.class).asStrictBinding()
+                         .forItself();
+            }
+        });
+        assertAllocationFree("refreshPending", new Runnable() {
+            @Override
+            public void run() {
+                injector.getInstance(RefreshableType.class);
+            }
+        });
+    }
+    
+    private static void assertAllocationFree(String name, Runnable operation) {
+        Assume.assumeTrue("Escape analysis is not enabled", escapeAnalysis);
+        assertAllocations(name, ALLOCATION_FREE_CEILING, operation);
+    }
+    
+    private static void assertAllocations(String name, long ceiling, Runnable operation) {
+        for (int i = 0; i < WARMUP; i++) {
+            operation.run();
+        }
+        
+        long id = Thread.currentThread().getId();
+        long perOperation = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS && perOperation > ceiling; round++) {
+            long start = threadBean.getThreadAllocatedBytes(id);
+            for (int i = 0; i < ITERATIONS; i++) {
+                operation.run();
+            }
+            perOperation = Math.min(perOperation,
+                    (threadBean.getThreadAllocatedBytes(id) - start) / ITERATIONS);
+        }
+        
+        Assert.assertTrue(name + " allocated " + perOperation + " bytes per operation, " +
+                          "exceeding the ceiling of " + ceiling,
+                          perOperation <= ceiling);
+    }
+    
+    public static class Unscoped {}
+    
+    @Singleton
+    public static class SingletonType extends Unscoped {}
+    
+    @ThreadScoped
+    public static class ThreadScopedType {}
+    
+    @Refreshable
+    public static class RefreshableType {}
+    
+    @Multiton
+    public static class MultitonType {}
+    
+    public static class MultitonHolder {
+        @Inject @Named("one") MultitonType one;
+    }
+    
+    public static class Dependent {
+        @Inject
+        public Dependent(Unscoped unscoped, SingletonType singleton, 
+                         @Named("one") MultitonType multiton) {}
+    }
+    
+    public static class MemberTarget {
+        @Inject Unscoped field;
+        @Inject SingletonType singleton;
+        @Inject void inject(Unscoped unscoped, SingletonType singleton) {}
+    }
+}
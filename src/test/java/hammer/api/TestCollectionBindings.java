@@ -880,6 +880,97 @@ public class TestCollectionBindings {
         Assert.assertTrue(obj2.injected.contains(instance));
     }
     
+    @Test
+    public void testListBindingWithInstanceMultipleValuesInsertionOrder() throws Exception {
+        final InstanceType first = new InstanceType();
+        final InstanceType second = new InstanceType();
+        final InstanceType third = new InstanceType();
+        Injector injector = Hammer.createInjector(new Loader() {
+            @Override
+            public void load(Container container) {
+                container.addInstance(first)
+                        .asListMemberBinding()
+                        .forElementType(InstanceType.class);
+                container.addInstance(second)
+                        .asListMemberBinding()
+                        .forElementType(InstanceType.class);
+            }
+        }, new Loader() {
+            @Override
+            public void load(Container container) {
+                container.addInstance(third)
+                        .asListMemberBinding()
+                        .forElementType(InstanceType.class);
+            }
+        });
+        
+        List<InstanceType> list = injector.getInstance(new TypeToken<List<InstanceType>>() {});
+        Assert.assertEquals(3, list.size());
+        Assert.assertSame(first, list.get(0));
+        Assert.assertSame(second, list.get(1));
+        Assert.assertSame(third, list.get(2));
+    }
+    
+    @Test
+    public void testListBindingWithInstanceMultipleValuesPriorityOrder() throws Exception {
+        final InstanceType first = new InstanceType();
+        final InstanceType second = new InstanceType();
+        final InstanceType third = new InstanceType();
+        final InstanceType fourth = new InstanceType();
+        Injector injector = Hammer.createInjector(new Loader() {
+            @Override
+            public void load(Container container) {
+                container.addInstance(fourth)
+                        .asListMemberBinding()
+                        .withPriority(10)
+                        .forElementType(InstanceType.class);
+                container.addInstance(second)
+                        .asListMemberBinding()
+                        .forElementType(InstanceType.class);
+            }
+        }, new Loader() {
+            @Override
+            public void load(Container container) {
+                container.addInstance(third)
+                        .asListMemberBinding()
+                        .forElementType(InstanceType.class);
+                container.addInstance(first)
+                        .asListMemberBinding()
+                        .withPriority(-5)
+                        .forElementType(InstanceType.class);
+            }
+        });
+        
+        List<InstanceType> list = injector.getInstance(new TypeToken<List<InstanceType>>() {});
+        Assert.assertEquals(4, list.size());
+        Assert.assertSame(first, list.get(0));
+        Assert.assertSame(second, list.get(1));
+        Assert.assertSame(third, list.get(2));
+        Assert.assertSame(fourth, list.get(3));
+        
+        List<InstanceType> list2 = injector.getInstance(new TypeToken<List<InstanceType>>() {});
+        Assert.assertEquals(list, list2);
+    }
+    
+    @Test
+    public void testListBindingWithPriorityAfterBound() throws Exception {
+        Injector injector = Hammer.createInjector(new Loader() {
+            @Override
+            public void load(Container container) {
+                Container.ListMemberBinder<PlainType> binder = 
+                        container.addImplType(PlainType.class).asListMemberBinding();
+                binder.forElementType(PlainType.class);
+                try {
+                    binder.withPriority(1);
+                    Assert.fail("Expected IllegalStateException");
+                } catch (IllegalStateException e) {}
+            }
+        });
+        
+        List<PlainType> list = injector.getInstance(new TypeToken<List<PlainType>>() {});
+        Assert.assertEquals(1, list.size());
+    }
+    
     @Test
     public void testSetBindingWithClassSingleValue() throws Exception {
         Injector injector = Hammer.createInjector(new Loader() {
@@ -0,0 +1,108 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.api;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestFlightRecorder {
+    
+    private static final Loader LOADER = new Loader() {
+        @Override
+        public void load(Container container) {
+            container.addImplType(SlowSingleton.class).asStrictBinding().forItself();
+            container.addImplType(SlowHolder.class).asStrictBinding().forItself();
+        }
+    };
+    
+    @Test
+    public void testEvents() throws Exception {
+        File file = File.createTempFile("hammer", ".jfr");
+        try {
+            Recording recording = new Recording();
+            try {
+                recording.enable("hammer.InjectorCreation");
+                recording.enable("hammer.LoaderExecution");
+                recording.enable("hammer.Introspection");
+                recording.enable("hammer.BindingValidation");
+                recording.enable("hammer.Provision").withThreshold(Duration.ofMillis(5));
+                recording.start();
+                
+                Injector injector = Hammer.createInjector(LOADER);
+                injector.getInstance(SlowHolder.class);
+                
+                recording.stop();
+                recording.dump(file.toPath());
+            } finally {
+                recording.close();
+            }
+            
+            List<String> names = new ArrayList<>();
+            RecordedEvent provision = null;
+            for (RecordedEvent event : RecordingFile.readAllEvents(file.toPath())) {
+                names.add(event.getEventType().getName());
+                if (event.getEventType().getName().equals("hammer.Provision") &&
+                    event.getInt("depth") == 2) {
+                    provision = event;
+                }
+            }
+            
+            Assert.assertTrue(names.contains("hammer.InjectorCreation"));
+            Assert.assertTrue(names.contains("hammer.LoaderExecution"));
+            Assert.assertTrue(names.contains("hammer.Introspection"));
+            Assert.assertTrue(names.contains("hammer.BindingValidation"));
+            
+            // only the slow singleton and its holder exceed the threshold
+            Assert.assertNotNull(provision);
+            Assert.assertEquals(TypeToken.forClass(SlowSingleton.class).toString(),
+                                provision.getString("type"));
+            Assert.assertEquals(Singleton.class.getName(),
+                                provision.getString("scope"));
+            Assert.assertNull(provision.getString("qualifier"));
+        } finally {
+            file.delete();
+        }
+    }
+    
+    @Test
+    public void testNoRecording() throws Exception {
+        Injector injector = Hammer.createInjector(LOADER);
+        Assert.assertNotNull(injector.getInstance(SlowHolder.class));
+    }
+    
+    @Singleton
+    public static class SlowSingleton {
+        public SlowSingleton() throws InterruptedException {
+            Thread.sleep(20);
+        }
+    }
+    
+    public static class SlowHolder {
+        @Inject SlowSingleton singleton;
+    }
+}
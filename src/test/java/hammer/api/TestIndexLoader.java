@@ -0,0 +1,201 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.api;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Qualifier;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class TestIndexLoader {
+    
+    private static final ClassLoader CLASS_LOADER = TestIndexLoader.class.getClassLoader();
+    
+    @Test
+    public void testIndexBindings() throws Exception {
+        Injector injector = Hammer.createInjector(
+                new IndexLoader(CLASS_LOADER, "hammer/api/test-index"));
+        
+        Assert.assertNotNull(injector.getInstance(Plain.class));
+        Assert.assertTrue(injector.getInstance(Handicapper.class) instanceof RiggedHandicapper);
+        
+        QualifiedHolder holder = new QualifiedHolder();
+        injector.injectMembers(holder);
+        Assert.assertTrue(holder.fair instanceof FairHandicapper);
+        Assert.assertTrue(holder.service instanceof FairHandicapper);
+        Assert.assertTrue(holder.rigged instanceof RiggedHandicapper);
+        Assert.assertNotNull(holder.quoted);
+    }
+    
+    @Test
+    public void testMissingIndex() throws Exception {
+        Injector injector = Hammer.createInjector(
+                new IndexLoader(CLASS_LOADER, "hammer/api/missing-index"));
+        
+        try {
+            injector.getInstance(Plain.class);
+            Assert.fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {}
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBoundType() throws Exception {
+        Hammer.createInjector(new IndexLoader(CLASS_LOADER, "hammer/api/bad-index"));
+    }
+    
+    @Test
+    public void testUnquotedQualifierValue() throws Exception {
+        try {
+            Hammer.createInjector(
+                    new IndexLoader(CLASS_LOADER, "hammer/api/unquoted-index"));
+            Assert.fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getCause().getMessage().contains("must be quoted"));
+        }
+    }
+    
+    @Test
+    public void testGeneratedIndex() throws Exception {
+        Path root = Files.createTempDirectory("hammer");
+        try {
+            ByteArrayOutputStream errors = new ByteArrayOutputStream();
+            Path classes = compile(root, errors,
+                    "package indexed;\n"
+                    + "import hammer.api.Indexed;\n"
+                    + "import javax.inject.Named;\n"
+                    + "public class Game {\n"
+                    + "  public interface Greeter {}\n"
+                    + "  @Indexed public static class Plain {}\n"
+                    + "  @Indexed(types = Greeter.class) @Named(\"two words (\\\"x\\\")\")\n"
+                    + "  public static class Hello implements Greeter {}\n"
+                    + "}\n");
+            Assert.assertNotNull(errors.toString(), classes);
+            Assert.assertTrue(Files.exists(classes.resolve(IndexLoader.DEFAULT_INDEX)));
+
+            try (URLClassLoader loader = new URLClassLoader(
+                    new URL[] {classes.toUri().toURL()}, CLASS_LOADER)) {
+                Injector injector = Hammer.createInjector(new IndexLoader(loader));
+
+                Assert.assertNotNull(
+                        injector.getInstance(loader.loadClass("indexed.Game$Plain")));
+                Object hello = injector.getInstance(Key.forClass(
+                        loader.loadClass("indexed.Game$Greeter"),
+                        Qualifiers.named("two words (\"x\")")));
+                Assert.assertEquals("indexed.Game$Hello", hello.getClass().getName());
+            }
+        } finally {
+            delete(root);
+        }
+    }
+    
+    @Test
+    public void testGeneratedIndexInvalidBoundType() throws Exception {
+        Path root = Files.createTempDirectory("hammer");
+        try {
+            ByteArrayOutputStream errors = new ByteArrayOutputStream();
+            Path classes = compile(root, errors,
+                    "package indexed;\n"
+                    + "import hammer.api.Indexed;\n"
+                    + "public class Game {\n"
+                    + "  @Indexed(types = Runnable.class) public static class Hello {}\n"
+                    + "}\n");
+            Assert.assertNull(classes);
+            Assert.assertTrue(errors.toString(),
+                              errors.toString().contains("cannot be bound to"));
+        } finally {
+            delete(root);
+        }
+    }
+    
+    /**
+     * Compiles the given source of indexed.Game with hammer on the class path and
+     * returns the class output directory, or null if the compilation failed.
+     */
+    private static Path compile(Path root, ByteArrayOutputStream errors, String source)
+            throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        Assume.assumeNotNull(compiler);
+        
+        Path file = root.resolve("indexed/Game.java");
+        Files.createDirectories(file.getParent());
+        Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+        Path classes = Files.createDirectories(root.resolve("classes"));
+        String classPath = location(Indexed.class) + File.pathSeparator
+                           + location(Named.class);
+        
+        int result = compiler.run(null, null, errors, "-classpath", classPath,
+                                  "-d", classes.toString(), file.toString());
+        return result == 0 ? classes : null;
+    }
+    
+    private static String location(Class<?> type) throws Exception {
+        return Paths.get(type.getProtectionDomain().getCodeSource().getLocation()
+                             .toURI()).toString();
+    }
+    
+    private static void delete(Path root) throws IOException {
+        List<Path> paths;
+        try (Stream<Path> walk = Files.walk(root)) {
+            paths = walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+        }
+        for (Path path : paths) {
+            Files.delete(path);
+        }
+    }
+    
+    public interface Service {}
+    public interface Handicapper {}
+    
+    @Retention(RetentionPolicy.RUNTIME)
+    @Qualifier
+    public static @interface Rigged {}
+    
+    public static class Plain {}
+    public static class FairHandicapper implements Handicapper, Service {}
+    public static class RiggedHandicapper implements Handicapper {}
+    
+    public static class QualifiedHolder {
+        @Inject @Named("fair") Handicapper fair;
+        @Inject @Named("fair") Service service;
+        @Inject @Rigged Handicapper rigged;
+        @Inject @Named("two words (and \"quotes\")") Plain quoted;
+    }
+}
@@ -0,0 +1,296 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.api;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestSnapshots {
+
+    private static final Loader BUILD_LOADER = new Loader() {
+        @Override
+        public void load(Container container) {
+            container.allowInjections(InjectionType.values());
+            container.addImplType(PrimaryService.class).asStrictBinding()
+                    .forSpecificTypes(Service.class)
+                    .whenQualifiedWith(Qualifiers.named("primary"));
+            container.addImplType(FirstPlugin.class).asMapMemberBinding()
+                    .forMapType(Kind.class, Plugin.class).withKey(Kind.FIRST);
+            container.addImplType(SecondPlugin.class).asMapMemberBinding()
+                    .forMapType(Kind.class, Plugin.class).withKey(Kind.SECOND);
+            container.addImplType(SecondPlugin.class).asListMemberBinding()
+                    .withPriority(2).forElementType(Plugin.class);
+            container.addImplType(FirstPlugin.class).asListMemberBinding()
+                    .withPriority(1).forElementType(Plugin.class);
+            container.addImplType(FirstPlugin.class)
+                    .asSetMemberBinding(Scopes.SINGLETON)
+                    .forElementType(Plugin.class);
+            container.addImplType(PluginHolder.class).asStrictBinding().forItself();
+        }
+    };
+
+    private static final Loader RUNTIME_LOADER = new Loader() {
+        @Override
+        public void load(Container container) {
+            container.addInstance(new Config("production")).asStrictBinding()
+                    .forItself();
+        }
+    };
+
+    @Test
+    public void testRestoreInjector() throws Exception {
+        Path file = Files.createTempFile("hammer", ".snapshot");
+        try {
+            Hammer.writeSnapshot(file, BUILD_LOADER);
+            Injector injector = Hammer.restoreInjector(file, RUNTIME_LOADER);
+
+            PluginHolder holder = injector.getInstance(PluginHolder.class);
+            Assert.assertTrue(holder.service instanceof PrimaryService);
+            Assert.assertEquals("production", holder.service.getName());
+            Assert.assertTrue(holder.map.get(Kind.FIRST) instanceof FirstPlugin);
+            Assert.assertTrue(holder.map.get(Kind.SECOND) instanceof SecondPlugin);
+            Assert.assertEquals(2, holder.list.size());
+            Assert.assertTrue(holder.list.get(0) instanceof FirstPlugin);
+            Assert.assertTrue(holder.list.get(1) instanceof SecondPlugin);
+            Assert.assertEquals(1, holder.set.size());
+            Assert.assertSame(holder.set,
+                              injector.getInstance(PluginHolder.class).set);
+            Assert.assertTrue(holder.initialized);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testInstanceBindingNotRecorded() throws Exception {
+        Path file = Files.createTempFile("hammer", ".snapshot");
+        try {
+            Hammer.writeSnapshot(file, BUILD_LOADER, RUNTIME_LOADER);
+            Assert.fail("Instance bindings should not be written to a snapshot");
+        } catch (IllegalArgumentException e) {
+            // expected
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testInvalidSnapshot() throws Exception {
+        Path file = Files.createTempFile("hammer", ".snapshot");
+        try {
+            Files.write(file, Arrays.asList("not a snapshot"), StandardCharsets.UTF_8);
+            Hammer.restoreInjector(file, RUNTIME_LOADER);
+            Assert.fail("Invalid snapshot should not be restored");
+        } catch (IllegalArgumentException e) {
+            // expected
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testStaleSnapshot() throws Exception {
+        Path file = Files.createTempFile("hammer", ".snapshot");
+        try {
+            Hammer.writeSnapshot(file, BUILD_LOADER);
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            lines.add("profile\thammer.api.TestSnapshots$Missing");
+            Files.write(file, lines, StandardCharsets.UTF_8);
+            Hammer.restoreInjector(file, RUNTIME_LOADER);
+            Assert.fail("Stale snapshot should not be restored");
+        } catch (IllegalStateException e) {
+            // expected
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testPoolCapacityRecorded() throws Exception {
+        Path file = Files.createTempFile("hammer", ".snapshot");
+        try {
+            Hammer.writeSnapshot(file, new Loader() {
+                @Override
+                public void load(Container container) {
+                    container.configurePoolCapacity(1);
+                    container.addImplType(PooledPlugin.class).asStrictBinding()
+                            .forItself();
+                }
+            });
+            Injector injector = Hammer.restoreInjector(file);
+            
+            Injector first = injector.enterScope(Pooled.class);
+            Injector second = injector.enterScope(Pooled.class);
+            PooledPlugin one = first.getInstance(PooledPlugin.class);
+            PooledPlugin two = second.getInstance(PooledPlugin.class);
+            first.exitScope();
+            second.exitScope();
+            
+            // only one of the instances fits in a pool of the recorded capacity
+            PooledPlugin three = injector.enterScope(Pooled.class)
+                                         .getInstance(PooledPlugin.class);
+            PooledPlugin four = injector.enterScope(Pooled.class)
+                                        .getInstance(PooledPlugin.class);
+            Assert.assertTrue(three == one || three == two);
+            Assert.assertTrue(four != one && four != two);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testRefreshIntervalRecorded() throws Exception {
+        Path file = Files.createTempFile("hammer", ".snapshot");
+        try {
+            Hammer.writeSnapshot(file, new Loader() {
+                @Override
+                public void load(Container container) {
+                    container.configureRefreshInterval(1, TimeUnit.NANOSECONDS);
+                    container.addImplType(RefreshablePlugin.class).asStrictBinding()
+                            .forItself();
+                }
+            });
+            final List<Runnable> tasks = new ArrayList<>();
+            Injector injector = Hammer.restoreInjector(file, new Loader() {
+                @Override
+                public void load(Container container) {
+                    container.configureAsyncSingletons(new Executor() {
+                        @Override
+                        public void execute(Runnable command) {
+                            tasks.add(command);
+                        }
+                    });
+                }
+            });
+            
+            injector.getInstance(RefreshablePlugin.class);
+            Thread.sleep(1);
+            injector.getInstance(RefreshablePlugin.class);
+            Assert.assertEquals("Expired instances should be rebuilt", 1, tasks.size());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testMultitonCapacityRecorded() throws Exception {
+        Path file = Files.createTempFile("hammer", ".snapshot");
+        try {
+            Hammer.writeSnapshot(file, new Loader() {
+                @Override
+                public void load(Container container) {
+                    container.configureMultitonCapacity(MultitonPlugin.class, 1, null);
+                    for (String name : new String[] { "one", "two" }) {
+                        container.addImplType(MultitonPlugin.class).asStrictBinding()
+                                .forItself().whenQualifiedWith(Qualifiers.named(name));
+                    }
+                }
+            });
+            Injector injector = Hammer.restoreInjector(file);
+            
+            Key<MultitonPlugin> one = Key.forClass(MultitonPlugin.class,
+                                                   Qualifiers.named("one"));
+            MultitonPlugin first = injector.getInstance(one);
+            injector.getInstance(Key.forClass(MultitonPlugin.class,
+                                              Qualifiers.named("two")));
+            Assert.assertNotSame("Instances beyond the capacity should be evicted",
+                                 first, injector.getInstance(one));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    public enum Kind { FIRST, SECOND }
+
+    public static class Config {
+        private final String name;
+
+        public Config(String name) {
+            this.name = name;
+        }
+    }
+
+    public interface Service {
+        String getName();
+    }
+
+    public static class PrimaryService implements Service {
+        @Inject
+        private Config config;
+
+        @Override
+        public String getName() {
+            return config.name;
+        }
+    }
+
+    public interface Plugin {}
+
+    public static class FirstPlugin implements Plugin {}
+
+    public static class SecondPlugin implements Plugin {}
+
+    public static class PluginHolder {
+        private final Service service;
+
+        @Inject
+        Map<Kind, Plugin> map;
+
+        @Inject
+        List<Plugin> list;
+
+        @Inject
+        Set<Plugin> set;
+
+        boolean initialized;
+
+        @Inject
+        PluginHolder(@Named("primary") Service service) {
+            this.service = service;
+        }
+
+        @Inject
+        private void initialize() {
+            initialized = true;
+        }
+    }
+
+    @Pooled
+    public static class PooledPlugin {
+    }
+
+    @Refreshable
+    public static class RefreshablePlugin {
+    }
+
+    @Multiton
+    public static class MultitonPlugin {
+    }
+}
@@ -15,16 +15,40 @@
  */
 package hammer.api;
 
+import java.lang.annotation.Annotation;
 import java.lang.annotation.Documented;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.lang.ref.WeakReference;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
 
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Test;
 
 import javax.inject.Named;
@@ -440,6 +464,7 @@ public class TestUseCases {
     }
     
     @Multiton public static class StandardMultitonType {}
+    @Multiton public static class UnboundedMultitonType {}
     public static class StandardMultitonInjector {
         @Inject
         @Named("one")
@@ -658,4 +683,1244 @@ public class TestUseCases {
     public static class A1 { @Inject B1 b; }
     public static class B1 { @Inject Provider<A1> a; }
     
+    @Test
+    public void testEagerSingletons() throws Exception {
+        EagerSingleton.instances.set(0);
+        final List<TypeToken<?>> instantiated = new ArrayList<>();
+        Injector injector = Hammer.createInjector(new Loader() {
+            @Override
+            public void load(Container container) {
+                container.addImplType(EagerSingleton.class).asStrictBinding().forItself();
+                container.addImplType(EagerDependent.class).asStrictBinding().forItself();
+                container.addImplType(ScopedType.class).asStrictBinding().forItself();
+                container.addImplType(Instance.class).asStrictBinding().forItself();
+                container.configureEagerSingletons(new Executor() {
+                    @Override
+                    public void execute(Runnable command) {
+                        command.run();
+                    }
+                }, new InstantiationListener() {
+                    @Override
+                    public void instantiated(TypeToken<?> type, long nanos) {
+                        instantiated.add(type);
+                    }
+                });
+            }
+        });
+        
+        Assert.assertEquals(1, EagerSingleton.instances.get());
+        Assert.assertEquals(2, instantiated.size());
+        Assert.assertEquals(TypeToken.forClass(EagerSingleton.class), instantiated.get(0));
+        Assert.assertEquals(TypeToken.forClass(EagerDependent.class), instantiated.get(1));
+        
+        EagerDependent dependent = injector.getInstance(EagerDependent.class);
+        Assert.assertSame(injector.getInstance(EagerSingleton.class), dependent.singleton);
+        Assert.assertEquals(1, EagerSingleton.instances.get());
+    }
+    
+    @Test
+    public void testInstantiationListenerFailure() throws Exception {
+        final List<Throwable> reported = new ArrayList<>();
+        Thread thread = Thread.currentThread();
+        Thread.UncaughtExceptionHandler handler = thread.getUncaughtExceptionHandler();
+        thread.setUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+            @Override
+            public void uncaughtException(Thread t, Throwable e) {
+                reported.add(e);
+            }
+        });
+        try {
+            final Executor direct = new Executor() {
+                @Override
+                public void execute(Runnable command) {
+                    command.run();
+                }
+            };
+            final InstantiationListener failing = new InstantiationListener() {
+                @Override
+                public void instantiated(TypeToken<?> type, long nanos) {
+                    throw new IllegalStateException("listener failed");
+                }
+            };
+            
+            // a failing listener must not fail the creation of a blocking injector
+            Injector eager = Hammer.createInjector(new Loader() {
+                @Override
+                public void load(Container container) {
+                    container.addImplType(SingletonType.class).asStrictBinding()
+                             .forItself();
+                    container.configureEagerSingletons(direct, failing);
+                }
+            });
+            Assert.assertNotNull(eager.getInstance(SingletonType.class));
+            Assert.assertEquals(1, reported.size());
+            
+            // nor the future of a singleton instantiated in the background
+            Injector async = Hammer.createInjector(new Loader() {
+                @Override
+                public void load(Container container) {
+                    container.addImplType(SingletonType.class).asStrictBinding()
+                             .forItself();
+                    container.configureAsyncSingletons(direct, failing);
+                }
+            });
+            CompletableFuture<SingletonType> future = async.getInstance(Key.forType(
+                    new TypeToken<CompletableFuture<SingletonType>>() {}));
+            Assert.assertSame(async.getInstance(SingletonType.class), future.get());
+            Assert.assertEquals(2, reported.size());
+            Assert.assertEquals("listener failed", reported.get(1).getMessage());
+        } finally {
+            thread.setUncaughtExceptionHandler(handler);
+        }
+    }
+    
+    @Test
+    public void testEagerSingletonsParallel() throws Exception {
+        EagerSingleton.instances.set(0);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Injector injector = Hammer.createInjector(new Loader() {
+                @Override
+                public void load(Container container) {
+                    container.addImplType(EagerSingleton.class).asStrictBinding().forItself();
+                    container.addImplType(EagerDependent.class).asStrictBinding().forItself();
+                    container.addImplType(SingletonType.class).asStrictBinding().forItself();
+                    container.addImplType(Instance.class).asStrictBinding().forItself();
+                    container.configureEagerSingletons(executor);
+                }
+            });
+            
+            Assert.assertEquals(1, EagerSingleton.instances.get());
+            EagerDependent dependent = injector.getInstance(EagerDependent.class);
+            Assert.assertSame(injector.getInstance(EagerSingleton.class), dependent.singleton);
+            Assert.assertEquals(1, EagerSingleton.instances.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    @Test(expected = InjectionException.class)
+    public void testEagerSingletonsFailure() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Hammer.createInjector(new Loader() {
+                @Override
+                public void load(Container container) {
+                    container.addImplType(FailingSingleton.class).asStrictBinding().forItself();
+                    container.configureEagerSingletons(executor);
+                }
+            });
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    @Singleton public static class EagerSingleton {
+        private static final AtomicInteger instances = new AtomicInteger();
+        public EagerSingleton() {
+            instances.incrementAndGet();
+        }
+    }
+    @Singleton public static class EagerDependent {
+        private final EagerSingleton singleton;
+        @Inject public EagerDependent(Instance i, EagerSingleton singleton) {
+            this.singleton = singleton;
+        }
+    }
+    @Singleton public static class FailingSingleton {
+        public FailingSingleton() {
+            throw new IllegalStateException("failed");
+        }
+    }
+    
+    @Test
+    public void testAsyncSingletons() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        SlowSingleton.release = release;
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Injector injector = Hammer.createInjector(new Loader() {
+                @Override
+                public void load(Container container) {
+                    container.addImplType(SlowSingleton.class).asStrictBinding().forItself();
+                    container.addImplType(FutureHolder.class).asStrictBinding().forItself();
+                    container.configureAsyncSingletons(executor);
+                }
+            });
+            
+            FutureHolder holder = injector.getInstance(FutureHolder.class);
+            CompletableFuture<String> name = holder.future.thenApply(
+                    new Function<SlowSingleton, String>() {
+                @Override
+                public String apply(SlowSingleton t) {
+                    return "slow";
+                }
+            });
+            Assert.assertFalse(holder.future.isDone());
+            
+            release.countDown();
+            SlowSingleton instance = holder.future.get(10, TimeUnit.SECONDS);
+            Assert.assertSame(injector.getInstance(SlowSingleton.class), instance);
+            Assert.assertEquals("slow", name.get(10, TimeUnit.SECONDS));
+            Assert.assertSame(instance, injector.getInstance(
+                    new TypeToken<CompletableFuture<SlowSingleton>>() {}).get());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+    
+    @Test
+    public void testFutureWithoutAsyncSingletons() throws Exception {
+        Injector injector = Hammer.createInjector(new Loader() {
+            @Override
+            public void load(Container container) {
+                container.addImplType(Instance.class).asStrictBinding().forItself();
+            }
+        });
+        
+        CompletableFuture<Instance> future = injector.getInstance(
+                new TypeToken<CompletableFuture<Instance>>() {});
+        Assert.assertTrue(future.isDone());
+        Assert.assertNotNull(future.get());
+    }
+    
+    @Singleton public static class SlowSingleton {
+        private static CountDownLatch release;
+        public SlowSingleton() throws InterruptedException {
+            release.await();
+        }
+    }
+    public static class FutureHolder {
+        @Inject CompletableFuture<SlowSingleton> future;
+    }
+    
+    @Test
+    public void testParallelLoaders() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Instance> instances = new ArrayList<>();
+            List<Loader> loaders = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                final Instance instance = new Instance();
+                final long delay = 8 - i;
+                instances.add(instance);
+                loaders.add(new Loader() {
+                    @Override
+                    public void load(Container container) {
+                        try {
+                            Thread.sleep(delay);
+                        } catch (InterruptedException e) {
+                            throw new IllegalStateException(e);
+                        }
+                        container.addInstance(instance).asListMemberBinding().forElementType(Instance.class);
+                    }
+                });
+            }
+            loaders.add(new Loader() {
+                @Override
+                public void load(Container container) {
+                    container.addImplType(InstanceHolder.class).asStrictBinding().forItself();
+                    container.allowInjections(InjectionType.PUBLIC_CONSTRUCTOR);
+                    container.allowInjections(InjectionType.NON_PUBLIC_MEMBER_FIELD);
+                }
+            });
+            loaders.add(new Loader() {
+                @Override
+                public void load(Container container) {
+                    container.addImplType(ScopedType.class).asStrictBinding().forItself();
+                    container.allowInjections(InjectionType.PUBLIC_MEMBER_FIELD);
+                    container.activateScopes(CustomScope.class);
+                }
+            });
+            
+            Injector injector = Hammer.createInjectorConcurrently(executor, loaders);
+            
+            Assert.assertEquals(instances, injector.getInstance(new TypeToken<List<Instance>>() {}));
+            Assert.assertTrue(injector.isSupported(InjectionType.PUBLIC_CONSTRUCTOR));
+            Assert.assertTrue(injector.isSupported(InjectionType.NON_PUBLIC_MEMBER_FIELD));
+            Assert.assertTrue(injector.isSupported(InjectionType.PUBLIC_MEMBER_FIELD));
+            Assert.assertFalse(injector.isSupported(InjectionType.PUBLIC_MEMBER_METHOD));
+            Assert.assertSame(injector.getInstance(ScopedType.class), injector.getInstance(ScopedType.class));
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    @Test(expected = IllegalStateException.class)
+    public void testParallelLoadersAmbiguousBinding() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Loader loader = new Loader() {
+                @Override
+                public void load(Container container) {
+                    container.addImplType(Instance.class).asStrictBinding().forItself();
+                }
+            };
+            Hammer.createInjectorConcurrently(executor, loader, loader);
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    @Test(expected = UnsupportedOperationException.class)
+    public void testParallelLoadersFailure() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Hammer.createInjectorConcurrently(executor, new Loader() {
+                @Override
+                public void load(Container container) {
+                    throw new UnsupportedOperationException();
+                }
+            });
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    @Test
+    public void testLambdaLoader() throws Exception {
+        // a lambda loader must not be ambiguous with the concurrent overloads
+        Injector injector = Hammer.createInjector(
+                c -> c.addImplType(Instance.class).asStrictBinding().forItself());
+        Assert.assertNotNull(injector.getInstance(Instance.class));
+    }
+    
+    @Test
+    public void testProvisionMetrics() throws Exception {
+        final ProvisionMetrics metrics = new ProvisionMetrics();
+        Injector injector = Hammer.createInjector(new Loader() {
+            @Override
+            public void load(Container container) {
+                container.addImplType(Instance.class).asStrictBinding().forItself();
+                container.addImplType(MeteredSingleton.class).asStrictBinding()
+                         .forItself();
+                container.addImplType(MeteredHolder.class).asStrictBinding().forItself();
+                container.configureProvisionListener(metrics);
+            }
+        });
+        
+        for (int i = 0; i < 3; i++) {
+            injector.getInstance(MeteredHolder.class);
+        }
+        
+        Map<Key<?>, ProvisionMetrics.Snapshot> snapshot = metrics.snapshot();
+        ProvisionMetrics.Snapshot holder = snapshot.get(
+                Key.forClass(MeteredHolder.class));
+        Assert.assertEquals(3, holder.getCount());
+        Assert.assertNull(holder.getScope());
+        Assert.assertEquals(0, holder.getScopeHits() + holder.getScopeMisses());
+        Assert.assertTrue(holder.getPercentileNanos(50) > 0);
+        Assert.assertTrue(holder.getPercentileNanos(100) >= 
+                          holder.getPercentileNanos(50));
+        
+        Assert.assertEquals(3, snapshot.get(Key.forClass(Instance.class))
+                                       .getCount());
+        
+        ProvisionMetrics.Snapshot singleton = snapshot.get(
+                Key.forClass(MeteredSingleton.class));
+        Assert.assertEquals(3, singleton.getCount());
+        Assert.assertEquals(Scopes.SINGLETON, singleton.getScope());
+        Assert.assertEquals(2, singleton.getScopeHits());
+        Assert.assertEquals(1, singleton.getScopeMisses());
+        
+        metrics.reset();
+        Assert.assertEquals(0, metrics.snapshot().get(
+                Key.forClass(MeteredHolder.class)).getCount());
+    }
+    
+    @Singleton public static class MeteredSingleton {}
+    public static class MeteredHolder {
+        @Inject MeteredSingleton singleton;
+        @Inject Instance instance;
+    }
+    
+    @Test
+    public void testProvisionMetricsQualified() throws Exception {
+        final ProvisionMetrics metrics = new ProvisionMetrics();
+        Injector injector = Hammer.createInjector(new Loader() {
+            @Override
+            public void load(Container container) {
+                container.addInstance("a").asStrictBinding().forItself()
+                         .whenQualifiedWith(Qualifiers.named("a"));
+                container.addInstance("b").asStrictBinding().forItself()
+                         .whenQualifiedWith(Qualifiers.named("b"));
+                container.addImplType(Instance.class).asStrictBinding().forItself();
+                container.configureProvisionListener(new ProvisionListener() {
+                    @Override
+                    public Recorder bind(TypeToken<?> type, Annotation qualifier,
+                                         Annotation scope) {
+                        // leave the unqualified instance uninstrumented
+                        return type.getRawClass() == Instance.class
+                               ? null : metrics.bind(type, qualifier, scope);
+                    }
+                });
+            }
+        });
+        
+        Key<String> a = Key.forClass(String.class, Qualifiers.named("a"));
+        Key<String> b = Key.forClass(String.class, Qualifiers.named("b"));
+        injector.getInstance(a);
+        injector.getInstance(a);
+        injector.getInstance(b);
+        injector.getInstance(Instance.class);
+        
+        Map<Key<?>, ProvisionMetrics.Snapshot> snapshot = metrics.snapshot();
+        Assert.assertEquals(2, snapshot.get(a).getCount());
+        Assert.assertEquals(1, snapshot.get(b).getCount());
+        Assert.assertEquals(a, snapshot.get(a).getKey());
+        Assert.assertFalse(snapshot.containsKey(Key.forClass(Instance.class)));
+        
+        StringBuilder json = new StringBuilder();
+        injector.exportGraph(json, GraphFormat.JSON);
+        String instance = TypeToken.forClass(Instance.class).toString();
+        Assert.assertTrue(json.toString().contains(
+                "\"bindings\": [{\"type\": \"" + instance
+                + "\", \"qualifier\": null}]}"));
+    }
+    
+    @Test
+    public void testExportGraph() throws Exception {
+        Injector injector = Hammer.createInjector(new Loader() {
+            @Override
+            public void load(Container container) {
+                container.addImplType(Instance.class).asStrictBinding().forItself();
+                container.addImplType(MeteredSingleton.class).asStrictBinding()
+                         .forItself();
+                container.addImplType(MeteredHolder.class).asStrictBinding().forItself();
+                container.addImplType(ProviderHolder.class).asStrictBinding()
+                         .forItself();
+                container.configureProvisionListener(new ProvisionMetrics());
+            }
+        });
+        injector.getInstance(MeteredHolder.class);
+        injector.getInstance(MeteredHolder.class);
+        
+        StringBuilder json = new StringBuilder();
+        injector.exportGraph(json, GraphFormat.JSON);
+        String holder = TypeToken.forClass(MeteredHolder.class).toString();
+        String singleton = TypeToken.forClass(MeteredSingleton.class).toString();
+        Assert.assertTrue(json.toString().contains(
+                "\"type\": \"" + holder + "\", \"kind\": \"unscoped\", "
+                + "\"scope\": null, \"bindings\": [{\"type\": \"" + holder
+                + "\", \"qualifier\": null}], \"provisions\": 2"));
+        Assert.assertTrue(json.toString().contains(
+                "\"kind\": \"singleton\", \"scope\": \"javax.inject.Singleton\""));
+        Assert.assertTrue(json.toString().contains(
+                "\"scopeHits\": 1, \"scopeMisses\": 1"));
+        Assert.assertTrue(json.toString().contains(
+                "\"injectionPoint\": \"field singleton\", \"type\": \"" + singleton
+                + "\", \"qualifier\": null, \"deferred\": false"));
+        Assert.assertTrue(json.toString().contains(
+                "\"injectionPoint\": \"field provider\", \"type\": \"" + singleton
+                + "\", \"qualifier\": null, \"deferred\": true"));
+        
+        StringBuilder dot = new StringBuilder();
+        injector.exportGraph(dot, GraphFormat.DOT);
+        Assert.assertTrue(dot.toString().startsWith("digraph injector {"));
+        Assert.assertTrue(dot.toString().contains("style=dashed"));
+        Assert.assertTrue(dot.toString().contains("provisions: 2"));
+        
+        File file = File.createTempFile("hammer", ".dot");
+        try {
+            injector.exportGraph(file.toPath(), GraphFormat.DOT);
+            Assert.assertEquals(dot.toString(), new String(
+                    Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+        } finally {
+            file.delete();
+        }
+    }
+    
+    public static class ProviderHolder {
+        @Inject Provider<MeteredSingleton> provider;
+    }
+    
+    @Test
+    public void testExportChildGraph() throws Exception {
+        Injector parent = Hammer.createInjector(new Loader() {
+            @Override
+            public void load(Container container) {
+                container.addImplType(Instance.class).asStrictBinding().forItself();
+                container.addImplType(MeteredSingleton.class).asStrictBinding()
+                         .forItself();
+                container.configureProvisionListener(new ProvisionMetrics());
+            }
+        });
+        Injector child = parent.createChildInjector(new Loader() {
+            @Override
+            public void load(Container container) {
+                container.addImplType(MeteredHolder.class).asStrictBinding().forItself();
+            }
+        });
+        child.getInstance(MeteredHolder.class);
+        
+        StringBuilder json = new StringBuilder();
+        child.exportGraph(json, GraphFormat.JSON);
+        String holder = TypeToken.forClass(MeteredHolder.class).toString();
+        String singleton = TypeToken.forClass(MeteredSingleton.class).toString();
+        Assert.assertTrue(json.toString().contains(
+                "{\"id\": 0, \"type\": \"" + holder + "\""));
+        Assert.assertTrue(json.toString().contains(
+                "\"bindings\": [{\"type\": \"" + singleton
+                + "\", \"qualifier\": null}], \"external\": true, \"provisions\": 1"));
+        Assert.assertTrue(json.toString().contains(
+                "{\"from\": 0, \"to\": 2, \"injectionPoint\": \"field singleton\""));
+        Assert.assertTrue(json.toString().contains(
+                "{\"from\": 0, \"to\": 1, \"injectionPoint\": \"field instance\""));
+        
+        StringBuilder dot = new StringBuilder();
+        child.exportGraph(dot, GraphFormat.DOT);
+        Assert.assertTrue(dot.toString().contains("bound by a parent injector"));
+        Assert.assertTrue(dot.toString().contains("style=dotted"));
+    }
+    
+    @Test
+    public void testProvisionTracer() throws Exception {
+        final List<ProvisionTrace> traces = new ArrayList<>();
+        Injector injector = Hammer.createInjector(new Loader() {
+            @Override
+            public void load(Container container) {
+                container.addImplType(Instance.class).asStrictBinding().forItself();
+                container.addImplType(MeteredSingleton.class).asStrictBinding()
+                         .forItself();
+                container.addImplType(MeteredHolder.class).asStrictBinding().forItself();
+                container.configureProvisionTracer(new ProvisionTracer() {
+                    @Override
+                    public void traced(ProvisionTrace trace) {
+                        traces.add(trace);
+                    }
+                });
+            }
+        });
+        injector.getInstance(MeteredHolder.class);
+        injector.enterScope(CustomScope.class).getInstance(MeteredHolder.class);
+        
+        Assert.assertEquals(2, traces.size());
+        for (int i = 0; i < traces.size(); i++) {
+            ProvisionTrace root = traces.get(i);
+            Assert.assertEquals(TypeToken.forClass(MeteredHolder.class), root.getType());
+            Assert.assertEquals("unscoped", root.getKind());
+            Assert.assertFalse(root.isScopeHit());
+            Assert.assertEquals(2, root.getChildren().size());
+            
+            long children = 0;
+            for (ProvisionTrace child : root.getChildren()) {
+                children += child.getNanos();
+                Assert.assertTrue(child.getChildren().isEmpty());
+                if (child.getType().equals(TypeToken.forClass(MeteredSingleton.class))) {
+                    Assert.assertEquals("singleton", child.getKind());
+                    Assert.assertEquals(i > 0, child.isScopeHit());
+                } else {
+                    Assert.assertEquals(TypeToken.forClass(Instance.class),
+                                        child.getType());
+                    Assert.assertEquals("unscoped", child.getKind());
+                }
+            }
+            Assert.assertTrue(root.getNanos() >= children);
+            Assert.assertEquals(root.getNanos() - children, root.getSelfNanos());
+        }
+        Assert.assertTrue(traces.get(1).toString().contains("scope hit"));
+    }
+    
+    @Singleton public static class TenantService {
+        @Inject SingletonType shared;
+        @Inject @Named("tenant") String tenant;
+    }
+    
+    private static Loader tenantLoader(final String tenant) {
+        return new Loader() {
+            @Override
+            public void load(Container container) {
+                container.addImplType(TenantService.class).asStrictBinding().forItself();
+                container.addInstance(tenant).asStrictBinding().forItself()
+                         .whenQualifiedWith(Qualifiers.named("tenant"));
+            }
+        };
+    }
+    
+    @Test
+    public void testChildInjector() throws Exception {
+        Injector parent = Hammer.createInjector(new Loader() {
+            @Override
+            public void load(Container container) {
+                container.addImplType(SingletonType.class).asStrictBinding().forItself();
+                container.addImplType(ScopedType.class).asStrictBinding().forItself();
+                container.addInstance("parent").asStrictBinding().forItself()
+                         .whenQualifiedWith(Qualifiers.named("tenant"));
+            }
+        });
+        Injector a = parent.createChildInjector(tenantLoader("a"));
+        Injector b = parent.createChildInjector(tenantLoader("b"));
+        
+        TenantService serviceA = a.getInstance(TenantService.class);
+        TenantService serviceB = b.getInstance(TenantService.class);
+        Assert.assertSame(serviceA, a.getInstance(TenantService.class));
+        Assert.assertSame(serviceA, 
+                          a.enterScope(CustomScope.class)
+                           .getInstance(TenantService.class));
+        Assert.assertNotSame(serviceA, serviceB);
+        Assert.assertEquals("a", serviceA.tenant);
+        Assert.assertEquals("b", serviceB.tenant);
+        
+        SingletonType shared = parent.getInstance(SingletonType.class);
+        Assert.assertSame(shared, serviceA.shared);
+        Assert.assertSame(shared, serviceB.shared);
+        Assert.assertSame(shared, a.getInstance(SingletonType.class));
+        
+        // scoped bindings of the parent are provided in scopes entered on a child
+        Injector scope = a.enterScope(CustomScope.class);
+        ScopedType scoped = scope.getInstance(ScopedType.class);
+        Assert.assertSame(scoped, scope.getInstance(ScopedType.class));
+        Assert.assertSame(scoped, scope.get(scope.resolve(
+                Key.forClass(ScopedType.class))));
+        Assert.assertNotSame(scoped, a.enterScope(CustomScope.class)
+                                      .getInstance(ScopedType.class));
+        Assert.assertSame(shared, scope.getInstance(SingletonType.class));
+        
+        try {
+            parent.getInstance(TenantService.class);
+            Assert.fail("Parent should not see the bindings of its children");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+    
+    @Test(expected=IllegalArgumentException.class)
+    public void testChildInjectorInjectionTypes() throws Exception {
+        Injector parent = Hammer.createInjector();
+        parent.createChildInjector(new Loader() {
+            @Override
+            public void load(Container container) {
+                container.allowInjections(InjectionType.PUBLIC_CONSTRUCTOR);
+            }
+        });
+    }
+    
+    @Test
+    public void testKeyHandles() throws Exception {
+        Injector injector = Hammer.createInjector(new Loader() {
+            @Override
+            public void load(Container container) {
+                container.addInstance("one").asStrictBinding().forItself()
+                         .whenQualifiedWith(Qualifiers.named("one"));
+                container.addInstance("two").asStrictBinding().forItself()
+                         .whenQualifiedWith(Qualifiers.named("two"));
+                container.addImplType(ScopedType.class).asStrictBinding().forItself();
+            }
+        });
+        Key<String> one = Key.forClass(String.class, Qualifiers.named("one"));
+        Key<String> two = Key.forClass(String.class, Qualifiers.named("two"));
+        Assert.assertEquals(one, Key.forClass(String.class, Qualifiers.named("one")));
+        Assert.assertNotEquals(one, two);
+        Assert.assertEquals("one", injector.getInstance(one));
+        Assert.assertEquals("two", injector.getProvider(two).get());
+        
+        Handle<String> handle = injector.resolve(two);
+        Assert.assertSame(two, handle.getKey());
+        Assert.assertEquals("two", injector.get(handle));
+        Assert.assertEquals("two", injector.get(injector.resolve(
+                Key.forType(new TypeToken<Provider<String>>() {}, 
+                            Qualifiers.named("two")))).get());
+        
+        Handle<ScopedType> scoped = injector.resolve(Key.forClass(ScopedType.class));
+        Injector scope = injector.enterScope(CustomScope.class);
+        Assert.assertSame(scope.getInstance(ScopedType.class), scope.get(scoped));
+        Assert.assertNotSame(scope.get(scoped),
+                             injector.enterScope(CustomScope.class).get(scoped));
+        
+        Injector child = injector.createChildInjector();
+        Assert.assertEquals("one", child.get(child.resolve(one)));
+        try {
+            child.get(handle);
+            Assert.fail("Handles should only be used with the injector that resolved them");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            injector.resolve(Key.forClass(String.class));
+            Assert.fail("Unbound keys should not be resolved");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+    
+    @Test
+    public void testOptionalBindings() throws Exception {
+        Injector injector = Hammer.createInjector(new Loader() {
+            @Override
+            public void load(Container container) {
+                container.allowInjections(InjectionType.values());
+                container.addInstance("one").asStrictBinding().forItself()
+                         .whenQualifiedWith(Qualifiers.named("one"));
+                container.addImplType(SingletonType.class).asStrictBinding().forItself();
+                container.addImplType(OptionalHolder.class).asStrictBinding().forItself();
+            }
+        });
+        
+        Assert.assertTrue(injector.hasBinding(SingletonType.class));
+        Assert.assertFalse(injector.hasBinding(String.class));
+        Assert.assertFalse(injector.hasBinding(String.class));
+        Assert.assertTrue(injector.hasBinding(
+                Key.forClass(String.class, Qualifiers.named("one"))));
+        Assert.assertTrue(injector.hasBinding(Key.forType(
+                new TypeToken<Provider<SingletonType>>() {})));
+        Assert.assertFalse(injector.hasBinding(Key.forType(
+                new TypeToken<Provider<String>>() {})));
+        Assert.assertSame(injector.getInstance(SingletonType.class),
+                          injector.findInstance(SingletonType.class).get());
+        Assert.assertFalse(injector.findInstance(String.class).isPresent());
+        Assert.assertEquals("one", injector.findInstance(
+                Key.forClass(String.class, Qualifiers.named("one"))).get());
+        Assert.assertFalse(injector.findInstance(
+                Key.forClass(String.class, Qualifiers.named("two"))).isPresent());
+        
+        OptionalHolder holder = injector.getInstance(OptionalHolder.class);
+        Assert.assertEquals("one", holder.one.get());
+        Assert.assertFalse(holder.two.isPresent());
+        Assert.assertSame(injector.getInstance(SingletonType.class),
+                          holder.singleton.get());
+        
+        try {
+            injector.getInstance(String.class);
+            Assert.fail("Unbound types should not be injected");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+    public static class OptionalHolder {
+        @Inject @Named("one") Optional<String> one;
+        @Inject @Named("two") Optional<String> two;
+        @Inject Optional<SingletonType> singleton;
+    }
+    
+    @Test
+    public void testThreadScoped() throws Exception {
+        final Injector injector = Hammer.createInjector(new Loader() {
+            @Override
+            public void load(Container container) {
+                container.addImplType(ThreadScopedType.class).asStrictBinding()
+                         .forItself();
+                container.addImplType(CustomThreadScopedType.class).asStrictBinding()
+                         .forItself();
+            }
+        });
+        
+        ThreadScopedType local = injector.getInstance(ThreadScopedType.class);
+        Assert.assertSame(local, injector.getInstance(ThreadScopedType.class));
+        
+        final AtomicReference<ThreadScopedType> other = new AtomicReference<>();
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                other.set(injector.getInstance(ThreadScopedType.class));
+            }
+        });
+        thread.start();
+        thread.join();
+        Assert.assertNotNull(other.get());
+        Assert.assertNotSame(local, other.get());
+        
+        injector.releaseThreadScope();
+        Assert.assertTrue(local.closed);
+        Assert.assertFalse(other.get().closed);
+        Assert.assertNotSame(local, injector.getInstance(ThreadScopedType.class));
+        
+        try {
+            injector.getInstance(CustomThreadScopedType.class);
+            Assert.fail("Custom thread scope should not be active");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        Injector scope = injector.enterScope(CustomThreadScope.class);
+        CustomThreadScopedType custom = scope.getInstance(CustomThreadScopedType.class);
+        Assert.assertSame(custom, scope.getInstance(CustomThreadScopedType.class));
+        Assert.assertNotSame(custom, injector.enterScope(CustomThreadScope.class)
+                                             .getInstance(CustomThreadScopedType.class));
+    }
+    @ThreadScoped public static class ThreadScopedType implements AutoCloseable {
+        boolean closed;
+        
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+    @Target(value = {ElementType.ANNOTATION_TYPE, ElementType.TYPE})
+    @Retention(value = RetentionPolicy.RUNTIME)
+    @Documented
+    @ThreadScoped
+    @Scope
+    public static @interface CustomThreadScope {}
+    @CustomThreadScope public static class CustomThreadScopedType {}
+    
+    @Test
+    public void testThreadScopeExited() throws Exception {
+        Injector injector = Hammer.createInjector(new Loader() {
+            @Override
+            public void load(Container container) {
+                container.addImplType(CustomThreadScopedType.class).asStrictBinding()
+                         .forItself();
+            }
+        });
+        Injector scope = injector.enterScope(CustomThreadScope.class);
+        WeakReference<CustomThreadScopedType> custom = new WeakReference<>(
+                scope.getInstance(CustomThreadScopedType.class));
+        scope.exitScope();
+        
+        // the instance must not stay reachable from this thread once the scope exits
+        for (int i = 0; i < 10 && custom.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assert.assertNull(custom.get());
+    }
+    
+    @Test
+    public void testEnteredScopeReleased() throws Exception {
+        Injector injector = Hammer.createInjector(new Loader() {
+            @Override
+            public void load(Container container) {
+                container.addImplType(ScopedType.class).asStrictBinding().forItself();
+            }
+        });
+        
+        Injector scope = injector.enterScope(CustomScope.class);
+        WeakReference<ScopedType> instance = 
+                new WeakReference<>(scope.getInstance(ScopedType.class));
+        Assert.assertSame(instance.get(), scope.getInstance(ScopedType.class));
+        
+        scope = null;
+        for (int i = 0; i < 50 && instance.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assert.assertNull("Scoped instances should be released with their injector", 
+                          instance.get());
+    }
+    
+    @Test
+    public void testPooled() throws Exception {
+        final ProvisionMetrics metrics = new ProvisionMetrics();
+        Injector injector = Hammer.createInjector(new Loader() {
+            @Override
+            public void load(Container container) {
+                container.configurePoolCapacity(1);
+                container.configureProvisionListener(metrics);
+                container.addImplType(PooledType.class).asStrictBinding().forItself();
+                container.addImplType(PooledHolder.class).asStrictBinding().forItself();
+            }
+        });
+        
+        try {
+            injector.getInstance(PooledType.class);
+            Assert.fail("Pooled scope should not be active until it is entered");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        try {
+            injector.exitScope();
+            Assert.fail("Injector did not enter a scope");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        
+        Injector first = injector.enterScope(Pooled.class);
+        Injector second = injector.enterScope(Pooled.class);
+        PooledHolder holder = first.getInstance(PooledHolder.class);
+        Assert.assertSame(holder.a, holder.b);
+        Assert.assertSame(holder.a, first.getInstance(PooledType.class));
+        PooledType other = second.getInstance(PooledType.class);
+        Assert.assertNotSame(holder.a, other);
+        
+        first.exitScope();
+        second.exitScope();
+        Assert.assertEquals(1, holder.a.resets);
+        Assert.assertEquals(1, other.resets);
+        
+        // only one instance fits in the pool, so the other was discarded
+        PooledType reused = injector.enterScope(Pooled.class)
+                                    .getInstance(PooledType.class);
+        Assert.assertSame(holder.a, reused);
+        Assert.assertNotSame(reused, first.getInstance(PooledType.class));
+        Assert.assertNotSame(other, first.getInstance(PooledType.class));
+        
+        ProvisionMetrics.Snapshot snapshot = metrics.snapshot().get(
+                Key.forClass(PooledType.class));
+        Assert.assertEquals(1, snapshot.getScopeHits());
+        Assert.assertEquals(3, snapshot.getScopeMisses());
+    }
+    @Pooled public static class PooledType implements Poolable {
+        int resets;
+        
+        @Override
+        public void reset() {
+            resets++;
+        }
+    }
+    public static class PooledHolder {
+        @Inject PooledType a;
+        @Inject PooledType b;
+    }
+    
+    @Test
+    public void testRefreshable() throws Exception {
+        final List<Runnable> tasks = new ArrayList<>();
+        final Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                tasks.add(command);
+            }
+        };
+        Injector injector = Hammer.createInjector(new Loader() {
+            @Override
+            public void load(Container container) {
+                container.configureAsyncSingletons(executor);
+                container.addImplType(RefreshableType.class).asStrictBinding()
+                         .forItself();
+                container.addImplType(Instance.class).asStrictBinding().forItself();
+            }
+        });
+        Key<RefreshableType> key = Key.forClass(RefreshableType.class);
+        
+        RefreshableType first = injector.getInstance(RefreshableType.class);
+        Assert.assertSame(first, injector.getInstance(RefreshableType.class));
+        
+        CompletableFuture<RefreshableType> refresh = injector.refresh(key);
+        Assert.assertSame(refresh, injector.refresh(key));
+        Assert.assertFalse(refresh.isDone());
+        Assert.assertSame(first, injector.getInstance(RefreshableType.class));
+        
+        Assert.assertEquals(1, tasks.size());
+        tasks.remove(0).run();
+        RefreshableType second = refresh.get();
+        Assert.assertNotSame(first, second);
+        Assert.assertSame(second, injector.getInstance(RefreshableType.class));
+        
+        try {
+            injector.refresh(Key.forClass(Instance.class));
+            Assert.fail("Only refreshable types can be refreshed");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+    
+    @Test
+    public void testRefreshInterval() throws Exception {
+        final List<Runnable> tasks = new ArrayList<>();
+        final Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                tasks.add(command);
+            }
+        };
+        Injector injector = Hammer.createInjector(new Loader() {
+            @Override
+            public void load(Container container) {
+                container.configureAsyncSingletons(executor);
+                container.configureRefreshInterval(1, TimeUnit.NANOSECONDS);
+                container.addImplType(RefreshableType.class).asStrictBinding()
+                         .forItself();
+            }
+        });
+        
+        RefreshableType first = injector.getInstance(RefreshableType.class);
+        Thread.sleep(1);
+        Assert.assertSame(first, injector.getInstance(RefreshableType.class));
+        Assert.assertSame(first, injector.getInstance(RefreshableType.class));
+        Assert.assertEquals(1, tasks.size());
+        
+        tasks.remove(0).run();
+        Assert.assertNotSame(first, injector.getInstance(RefreshableType.class));
+    }
+    @Refreshable public static class RefreshableType {}
+    
+    @Test
+    public void testRefreshError() throws Exception {
+        final List<Runnable> tasks = new ArrayList<>();
+        final Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                tasks.add(command);
+            }
+        };
+        // errors are not wrapped like constructor failures, so raise one on a miss
+        final AtomicBoolean fail = new AtomicBoolean();
+        final ProvisionListener.Recorder recorder = new ProvisionListener.Recorder() {
+            @Override
+            public void provisioned(long nanos) {
+            }
+            
+            @Override
+            public void scopeHit() {
+            }
+            
+            @Override
+            public void scopeMiss() {
+                if (fail.get()) {
+                    throw new LinkageError("unavailable");
+                }
+            }
+        };
+        Injector injector = Hammer.createInjector(new Loader() {
+            @Override
+            public void load(Container container) {
+                container.configureAsyncSingletons(executor);
+                container.configureProvisionListener(new ProvisionListener() {
+                    @Override
+                    public Recorder bind(TypeToken<?> type, Annotation qualifier,
+                                         Annotation scope) {
+                        return recorder;
+                    }
+                });
+                container.addImplType(RefreshableType.class).asStrictBinding()
+                         .forItself();
+            }
+        });
+        Key<RefreshableType> key = Key.forClass(RefreshableType.class);
+        RefreshableType first = injector.getInstance(key);
+        
+        fail.set(true);
+        CompletableFuture<RefreshableType> failed = injector.refresh(key);
+        try {
+            tasks.remove(0).run();
+            Assert.fail("Errors should reach the executor");
+        } catch (LinkageError e) {
+            // expected
+        }
+        Assert.assertTrue(failed.isCompletedExceptionally());
+        Assert.assertSame(first, injector.getInstance(key));
+        
+        // a failed rebuild must not block later refreshes
+        fail.set(false);
+        CompletableFuture<RefreshableType> refresh = injector.refresh(key);
+        Assert.assertNotSame(failed, refresh);
+        tasks.remove(0).run();
+        Assert.assertSame(refresh.get(), injector.getInstance(key));
+        Assert.assertNotSame(first, refresh.get());
+    }
+    
+    @Test
+    public void testBoundedMultiton() throws Exception {
+        final ProvisionMetrics metrics = new ProvisionMetrics();
+        final List<Object> evicted = new ArrayList<>();
+        Injector injector = Hammer.createInjector(new Loader() {
+            @Override
+            public void load(Container container) {
+                container.configureProvisionListener(metrics);
+                container.configureMultitonCapacity(StandardMultitonType.class, 2,
+                                                    new EvictionListener() {
+                    @Override
+                    public void evicted(TypeToken<?> type, Annotation qualifier,
+                                        Object instance) {
+                        Assert.assertEquals(
+                                TypeToken.forClass(StandardMultitonType.class), type);
+                        evicted.add(qualifier);
+                        evicted.add(instance);
+                    }
+                });
+                for (String name : new String[] { "one", "two", "three" }) {
+                    container.addImplType(StandardMultitonType.class).asStrictBinding()
+                             .forItself().whenQualifiedWith(Qualifiers.named(name));
+                    container.addImplType(UnboundedMultitonType.class).asStrictBinding()
+                             .forItself().whenQualifiedWith(Qualifiers.named(name));
+                }
+            }
+        });
+        
+        Key<StandardMultitonType> one = Key.forClass(StandardMultitonType.class,
+                                                     Qualifiers.named("one"));
+        Key<StandardMultitonType> two = Key.forClass(StandardMultitonType.class,
+                                                     Qualifiers.named("two"));
+        Key<StandardMultitonType> three = Key.forClass(StandardMultitonType.class,
+                                                       Qualifiers.named("three"));
+        StandardMultitonType first = injector.getInstance(one);
+        StandardMultitonType second = injector.getInstance(two);
+        // touching "one" makes "two" the least recently used instance
+        Assert.assertSame(first, injector.getInstance(one));
+        Assert.assertTrue(evicted.isEmpty());
+        
+        injector.getInstance(three);
+        Assert.assertEquals(Arrays.<Object>asList(Qualifiers.named("two"), second),
+                            evicted);
+        Assert.assertSame(first, injector.getInstance(one));
+        Assert.assertNotSame(second, injector.getInstance(two));
+        
+        ProvisionMetrics.Snapshot snapshot = metrics.snapshot().get(
+                Key.forClass(StandardMultitonType.class));
+        Assert.assertEquals(2, snapshot.getScopeHits());
+        Assert.assertEquals(4, snapshot.getScopeMisses());
+        Assert.assertEquals(2, snapshot.getScopeEvictions());
+        Assert.assertEquals(4, evicted.size());
+        
+        // the bound does not apply to other multiton types
+        List<UnboundedMultitonType> unbounded = new ArrayList<>();
+        for (String name : new String[] { "one", "two", "three" }) {
+            unbounded.add(injector.getInstance(Key.forClass(UnboundedMultitonType.class,
+                                                            Qualifiers.named(name))));
+        }
+        Assert.assertSame(unbounded.get(0), injector.getInstance(
+                Key.forClass(UnboundedMultitonType.class, Qualifiers.named("one"))));
+        Assert.assertEquals(4, evicted.size());
+    }
+    
+    @Test
+    public void testSoftScoped() throws Exception {
+        final ProvisionMetrics metrics = new ProvisionMetrics();
+        Injector injector = Hammer.createInjector(new Loader() {
+            @Override
+            public void load(Container container) {
+                container.configureProvisionListener(metrics);
+                container.addImplType(SoftScopedType.class).asStrictBinding().forItself();
+            }
+        });
+        Assert.assertTrue(injector.getActiveScopes().contains(Scopes.SOFT));
+        
+        SoftScopedType first = injector.getInstance(SoftScopedType.class);
+        Assert.assertSame(first, injector.getInstance(SoftScopedType.class));
+        int built = SoftScopedType.BUILT.get();
+        WeakReference<SoftScopedType> reclaimed = new WeakReference<>(first);
+        first = null;
+        
+        // the build runs the tests with -XX:SoftRefLRUPolicyMSPerMB=0, so soft
+        // references are cleared by any collection instead of under heap pressure
+        for (int i = 0; i < 10 && reclaimed.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assume.assumeTrue("Soft references were not cleared, run the test with "
+                          + "-XX:SoftRefLRUPolicyMSPerMB=0", reclaimed.get() == null);
+        
+        SoftScopedType rebuilt = injector.getInstance(SoftScopedType.class);
+        Assert.assertEquals(built + 1, SoftScopedType.BUILT.get());
+        Assert.assertSame(rebuilt, injector.getInstance(SoftScopedType.class));
+        
+        ProvisionMetrics.Snapshot snapshot = metrics.snapshot().get(
+                Key.forClass(SoftScopedType.class));
+        Assert.assertEquals(2, snapshot.getScopeHits());
+        Assert.assertEquals(2, snapshot.getScopeMisses());
+        Assert.assertEquals(1, snapshot.getScopeEvictions());
+    }
+    @SoftScoped public static class SoftScopedType {
+        static final AtomicInteger BUILT = new AtomicInteger();
+        
+        public SoftScopedType() {
+            BUILT.incrementAndGet();
+        }
+    }
+    
+    @Test
+    public void testLazy() throws Exception {
+        Injector injector = Hammer.createInjector(new Loader() {
+            @Override
+            public void load(Container container) {
+                container.addImplType(ExpensiveType.class).asStrictBinding().forItself();
+                container.addImplType(LazyHolder.class).asStrictBinding().forItself();
+            }
+        });
+        
+        int built = ExpensiveType.BUILT.get();
+        LazyHolder holder = injector.getInstance(LazyHolder.class);
+        Assert.assertEquals("Lazy dependencies should not be built on injection",
+                            built, ExpensiveType.BUILT.get());
+        
+        ExpensiveType first = holder.expensive.get();
+        Assert.assertSame(first, holder.expensive.get());
+        Assert.assertEquals(built + 1, ExpensiveType.BUILT.get());
+        // a provider of the same unscoped type still builds on every request
+        Assert.assertNotSame(first, holder.provider.get());
+        
+        final LazyHolder shared = injector.getInstance(LazyHolder.class);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<ExpensiveType>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(new Callable<ExpensiveType>() {
+                    @Override
+                    public ExpensiveType call() {
+                        return shared.expensive.get();
+                    }
+                }));
+            }
+            for (Future<ExpensiveType> result : results) {
+                Assert.assertSame(shared.expensive.get(), result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        
+        Assert.assertTrue(injector.hasBinding(
+                Key.forType(new TypeToken<Lazy<ExpensiveType>>() {})));
+        Assert.assertFalse(injector.hasBinding(
+                Key.forType(new TypeToken<Lazy<SoftScopedType>>() {})));
+    }
+    public static class ExpensiveType {
+        static final AtomicInteger BUILT = new AtomicInteger();
+        
+        public ExpensiveType() {
+            BUILT.incrementAndGet();
+        }
+    }
+    public static class LazyHolder {
+        @Inject Lazy<ExpensiveType> expensive;
+        @Inject Provider<ExpensiveType> provider;
+    }
+    
+    @Test
+    public void testExplicitOptionalBinding() throws Exception {
+        Injector injector = Hammer.createInjector(new Loader() {
+            @Override
+            public void load(Container container) {
+                container.allowInjections(InjectionType.values());
+                container.addInstance(Optional.of("bound")).asStrictBinding()
+                         .forSpecificTypes(new TypeToken<Optional<String>>() {})
+                         .whenQualifiedWith(Qualifiers.named("explicit"));
+            }
+        });
+        Injector child = injector.createChildInjector(new Loader() {
+            @Override
+            public void load(Container container) {
+                container.addImplType(ExplicitOptionalHolder.class).asStrictBinding()
+                         .forItself();
+            }
+        });
+        
+        Key<Optional<String>> key = Key.forType(new TypeToken<Optional<String>>() {},
+                                                Qualifiers.named("explicit"));
+        Assert.assertEquals("bound", injector.getInstance(key).get());
+        Assert.assertFalse(injector.findInstance(
+                Key.forClass(String.class, Qualifiers.named("explicit"))).isPresent());
+        
+        ExplicitOptionalHolder holder = child.getInstance(ExplicitOptionalHolder.class);
+        Assert.assertEquals("bound", holder.explicit.get());
+        Assert.assertFalse(holder.implicit.isPresent());
+        Assert.assertEquals("bound", child.getInstance(key).get());
+    }
+    public static class ExplicitOptionalHolder {
+        @Inject @Named("explicit") Optional<String> explicit;
+        @Inject @Named("implicit") Optional<String> implicit;
+    }
+    
+    @Test
+    public void testExplicitFutureBinding() throws Exception {
+        final CompletableFuture<String> future = new CompletableFuture<>();
+        Injector injector = Hammer.createInjector(new Loader() {
+            @Override
+            public void load(Container container) {
+                container.allowInjections(InjectionType.values());
+                container.addInstance(future).asStrictBinding()
+                         .forSpecificTypes(new TypeToken<CompletableFuture<String>>() {});
+                container.addImplType(BoundFutureHolder.class).asStrictBinding()
+                         .forItself();
+            }
+        });
+        
+        Key<CompletableFuture<String>> key = Key.forType(
+                new TypeToken<CompletableFuture<String>>() {});
+        Assert.assertTrue(injector.hasBinding(key));
+        Assert.assertSame(future, injector.getInstance(key));
+        Assert.assertSame(future, injector.getInstance(BoundFutureHolder.class).future);
+    }
+    public static class BoundFutureHolder {
+        @Inject CompletableFuture<String> future;
+    }
 }
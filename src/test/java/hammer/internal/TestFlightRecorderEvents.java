@@ -0,0 +1,51 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.internal;
+
+import jdk.jfr.Recording;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestFlightRecorderEvents {
+
+    @Test
+    public void testProvisionEnabled() throws Exception {
+        Assert.assertFalse(InjectionEvents.EVENTS.isProvisionEnabled());
+        
+        Recording recording = new Recording();
+        try {
+            recording.enable("hammer.InjectorCreation");
+            recording.start();
+            Assert.assertFalse("Provisions should not be timed unless enabled",
+                               InjectionEvents.EVENTS.isProvisionEnabled());
+        } finally {
+            recording.close();
+        }
+        
+        recording = new Recording();
+        try {
+            recording.enable("hammer.Provision");
+            recording.start();
+            Assert.assertTrue(InjectionEvents.EVENTS.isProvisionEnabled());
+            recording.stop();
+            Assert.assertFalse(InjectionEvents.EVENTS.isProvisionEnabled());
+        } finally {
+            recording.close();
+        }
+    }
+
+}
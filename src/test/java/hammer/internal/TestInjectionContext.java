@@ -0,0 +1,60 @@
+/**
+ * Copyright 2015 hammer Contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hammer.internal;
+
+import java.util.Collections;
+
+import hammer.api.Container;
+import hammer.api.Key;
+import hammer.api.Loader;
+import hammer.api.Qualifiers;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestInjectionContext {
+
+    @Test
+    public void testKeyMissesBounded() throws Exception {
+        InjectionContext context = new InjectionContext(ContainerImpl.load(
+                Collections.singletonList(new Loader() {
+                    @Override
+                    public void load(Container container) {
+                        container.addInstance("one").asStrictBinding().forItself()
+                                 .whenQualifiedWith(Qualifiers.named("one"));
+                    }
+                })));
+        
+        Key<String> early = Key.forClass(String.class, Qualifiers.named("early"));
+        Assert.assertFalse(context.findHandle(early).isBound());
+        Assert.assertSame(context.findHandle(early), context.findHandle(early));
+        
+        for (int i = 0; i < 4096; i++) {
+            context.findHandle(Key.forClass(String.class, Qualifiers.named("miss" + i)));
+        }
+        
+        Key<String> late = Key.forClass(String.class, Qualifiers.named("late"));
+        Assert.assertFalse(context.findHandle(late).isBound());
+        Assert.assertNotSame("Misses should not be cached past the bound",
+                             context.findHandle(late), context.findHandle(late));
+        Assert.assertSame(context.findHandle(early), context.findHandle(early));
+        
+        Key<String> bound = Key.forClass(String.class, Qualifiers.named("one"));
+        Assert.assertTrue(context.findHandle(bound).isBound());
+        Assert.assertSame(context.findHandle(bound), context.findHandle(bound));
+    }
+
+}